@@ -11,6 +11,12 @@ const api = axios.create({
   }
 });
 
+// After a write the backend answers with X-Primary-Until; echoing it keeps our reads on the
+// primary database until then, whichever backend instance serves them. The backend judges
+// expiry on its own clock, so the last value is simply sent back.
+const PRIMARY_UNTIL_HEADER = 'x-primary-until';
+let primaryUntil = 0;
+
 // Request interceptor to add auth token
 api.interceptors.request.use(
   (config) => {
@@ -18,6 +24,9 @@ api.interceptors.request.use(
     if (token) {
       config.headers.Authorization = `Bearer ${token}`;
     }
+    if (primaryUntil) {
+      config.headers[PRIMARY_UNTIL_HEADER] = String(primaryUntil);
+    }
     return config;
   },
   (error) => {
@@ -27,7 +36,13 @@ api.interceptors.request.use(
 
 // Response interceptor for error handling
 api.interceptors.response.use(
-  (response) => response,
+  (response) => {
+    const until = Number(response.headers[PRIMARY_UNTIL_HEADER]);
+    if (until > primaryUntil) {
+      primaryUntil = until;
+    }
+    return response;
+  },
   (error) => {
     if (error.response?.status === 401) {
       // Token expired or invalid, logout user
@@ -0,0 +1,229 @@
+package com.ecom177.bench;
+
+import com.ecom177.config.AdaptiveConcurrencyFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.ResourcePropertySource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop load test of {@link AdaptiveConcurrencyFilter}: checkout and catalog traffic share
+ * one connection pool, and catalog alone asks for more than the pool can serve. Runs the same
+ * load with the filter disabled, with the gradient limits but no priority, and with the
+ * configured ranking. Exits with status 1 unless the last keeps checkout's success rate at
+ * {@code load.min-checkout-success} or better, and above catalog's.
+ * The default load is a checkout surge that the pool could serve on its own; checkout traffic
+ * needing more connections than the pool has cannot reach the threshold whatever the ranking.
+ * <p>
+ * Requests run on 200 threads like Tomcat's default, and latency is taken from the scheduled
+ * arrival. Past the filter, each request waits up to {@code load.timeout-ms} for one of
+ * {@code load.pool} connections, as Hikari would, and holds it for its group's query time
+ * (checkout writes take longer than catalog reads); a wait that times out is a 500.
+ * <p>
+ * The groups, ranking and limits are the {@code app.concurrency-limit.*} values from
+ * {@code application.properties}, which a {@code -D} system property overrides. Of the groups,
+ * only checkout and catalog receive traffic.
+ * <p>
+ * {@code mvn -Pbench test-compile exec:exec -Dbench.main=com.ecom177.bench.AdaptiveConcurrencyLoadTest},
+ * with the load as {@code -Dbench.args="<checkout rate/s> <catalog rate/s>"} (default 250 1500)
+ * and tuned with {@code -Dbench.jvmArgs="-Dload.seconds=30 -Dload.pool=10"}.
+ */
+public class AdaptiveConcurrencyLoadTest {
+
+    private static final int SECONDS = Integer.getInteger("load.seconds", 15);
+    private static final int POOL = Integer.getInteger("load.pool", 10);
+    private static final long TIMEOUT_MS = Long.getLong("load.timeout-ms", 1000);
+    private static final int CHECKOUT_MS = Integer.getInteger("load.checkout-ms", 30);
+    private static final int CATALOG_MS = Integer.getInteger("load.catalog-ms", 10);
+    private static final double MIN_CHECKOUT_SUCCESS = Double.parseDouble(System.getProperty("load.min-checkout-success", "0.95"));
+    private static final int TOMCAT_THREADS = 200;
+
+    private static final StandardEnvironment SETTINGS = settings();
+
+    public static void main(String[] args) throws Exception {
+        int checkoutRate = args.length > 0 ? Integer.parseInt(args[0]) : 250;
+        int catalogRate = args.length > 1 ? Integer.parseInt(args[1]) : 1500;
+        double demand = (checkoutRate * CHECKOUT_MS + catalogRate * CATALOG_MS) / 1000.0;
+        System.out.printf("pool=%d, checkout %d/s holding %d ms, catalog %d/s holding %d ms: %.1f connections "
+                + "demanded, %d s per run%n", POOL, checkoutRate, CHECKOUT_MS, catalogRate, CATALOG_MS, demand, SECONDS);
+
+        String priority = SETTINGS.getProperty("app.concurrency-limit.priority", "");
+        System.out.printf("groups: %s%npriority: %s%n%n", SETTINGS.getProperty("app.concurrency-limit.groups", ""), priority);
+        System.out.printf("%-26s %-9s %8s %8s %8s %8s %10s %10s%n",
+                "scenario", "group", "ok/s", "ok %", "503", "500", "p50 ms", "p99 ms");
+
+        run("no limit", filter(false, ""), checkoutRate, catalogRate);
+        run("gradient, no priority", filter(true, ""), checkoutRate, catalogRate);
+        Result[] prioritised = run("gradient, priority", filter(true, priority), checkoutRate, catalogRate);
+
+        double checkoutSuccess = prioritised[0].successRatio();
+        if (checkoutSuccess < MIN_CHECKOUT_SUCCESS || checkoutSuccess <= prioritised[1].successRatio()) {
+            System.out.printf("%nFAILED: checkout succeeded for %.1f%% of requests (catalog %.1f%%), expected at least %.1f%%%n",
+                    checkoutSuccess * 100, prioritised[1].successRatio() * 100, MIN_CHECKOUT_SUCCESS * 100);
+            System.exit(1);
+        }
+        System.out.printf("%nOK: checkout kept priority, %.1f%% of its requests succeeded%n", checkoutSuccess * 100);
+    }
+
+    // Same property names and defaults as the filter's @Value parameters
+    private static AdaptiveConcurrencyFilter filter(boolean enabled, String priority) {
+        return new AdaptiveConcurrencyFilter(new ObjectMapper(), new SimpleMeterRegistry(), enabled,
+                SETTINGS.getProperty("app.concurrency-limit.groups", ""), priority,
+                SETTINGS.getProperty("app.concurrency-limit.initial-limit", Integer.class, 20),
+                SETTINGS.getProperty("app.concurrency-limit.min-limit", Integer.class, 4),
+                SETTINGS.getProperty("app.concurrency-limit.max-limit", Integer.class, 200),
+                SETTINGS.getProperty("app.concurrency-limit.tolerance", Double.class, 1.5),
+                SETTINGS.getProperty("app.concurrency-limit.smoothing", Double.class, 0.2),
+                SETTINGS.getProperty("app.concurrency-limit.window-ms", Long.class, 250L),
+                SETTINGS.getProperty("app.concurrency-limit.long-window", Integer.class, 100));
+    }
+
+    // System properties first, then application.properties, with its placeholders resolved
+    private static StandardEnvironment settings() {
+        StandardEnvironment environment = new StandardEnvironment();
+        try {
+            environment.getPropertySources().addLast(new ResourcePropertySource(new ClassPathResource("application.properties")));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return environment;
+    }
+
+    private static Result[] run(String scenario, AdaptiveConcurrencyFilter filter, int checkoutRate, int catalogRate)
+            throws Exception {
+        Semaphore connections = new Semaphore(POOL, true);
+        Result checkout = new Result("checkout", checkoutRate * SECONDS);
+        Result catalog = new Result("catalog", catalogRate * SECONDS);
+        // One arrival schedule for both groups, merged in time order
+        List<long[]> arrivals = new ArrayList<>(checkout.latencies.length + catalog.latencies.length);
+        long checkoutPeriod = TimeUnit.SECONDS.toNanos(1) / checkoutRate;
+        long catalogPeriod = TimeUnit.SECONDS.toNanos(1) / catalogRate;
+        for (int i = 0; i < checkout.latencies.length; i++) {
+            arrivals.add(new long[] {i * checkoutPeriod, 0, i});
+        }
+        for (int i = 0; i < catalog.latencies.length; i++) {
+            arrivals.add(new long[] {i * catalogPeriod, 1, i});
+        }
+        arrivals.sort((a, b) -> Long.compare(a[0], b[0]));
+
+        ExecutorService executor = new ThreadPoolExecutor(TOMCAT_THREADS, TOMCAT_THREADS, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>());
+        AtomicLong lastCompletion = new AtomicLong();
+        long start = System.nanoTime();
+        for (long[] next : arrivals) {
+            long arrival = start + next[0];
+            long wait = arrival - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            boolean isCheckout = next[1] == 0;
+            Result result = isCheckout ? checkout : catalog;
+            int index = (int) next[2];
+            executor.execute(() -> {
+                MockHttpServletRequest request = isCheckout
+                        ? new MockHttpServletRequest("POST", "/api/orders")
+                        : new MockHttpServletRequest("GET", "/api/products/" + (index % 100 + 1));
+                MockHttpServletResponse response = new MockHttpServletResponse();
+                try {
+                    filter.doFilter(request, response, database(connections, isCheckout ? CHECKOUT_MS : CATALOG_MS));
+                } catch (Exception e) {
+                    response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+                }
+                result.record(index, response.getStatus(), System.nanoTime() - arrival);
+                lastCompletion.accumulateAndGet(System.nanoTime(), Math::max);
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(SECONDS + 600, TimeUnit.SECONDS);
+
+        double elapsedSeconds = (lastCompletion.get() - start) / 1e9;
+        for (Result result : new Result[] {checkout, catalog}) {
+            long[] ok = result.okLatencies();
+            System.out.printf("%-26s %-9s %8.0f %8.1f %8d %8d %10.1f %10.1f%n", scenario, result.group,
+                    ok.length / elapsedSeconds, result.successRatio() * 100, result.count(503), result.count(500),
+                    percentile(ok, 0.50), percentile(ok, 0.99));
+        }
+        return new Result[] {checkout, catalog};
+    }
+
+    // Stands in for the controller: wait for a pooled connection, then hold it for the query
+    private static FilterChain database(Semaphore connections, int queryMs) {
+        return (request, response) -> {
+            try {
+                if (!connections.tryAcquire(TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                    ((HttpServletResponse) response).setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+                    return;
+                }
+                try {
+                    Thread.sleep(queryMs);
+                } finally {
+                    connections.release();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                ((HttpServletResponse) response).setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            }
+        };
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0.0;
+        }
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1)] / 1e6;
+    }
+
+    private static final class Result {
+        private final String group;
+        private final long[] latencies;
+        private final int[] statuses;
+
+        Result(String group, int requests) {
+            this.group = group;
+            this.latencies = new long[requests];
+            this.statuses = new int[requests];
+        }
+
+        // Each index is written by one task, and read after the executor has terminated
+        void record(int index, int status, long latencyNanos) {
+            statuses[index] = status;
+            latencies[index] = latencyNanos;
+        }
+
+        long count(int status) {
+            return Arrays.stream(statuses).filter(s -> s == status).count();
+        }
+
+        double successRatio() {
+            return (double) count(200) / statuses.length;
+        }
+
+        long[] okLatencies() {
+            List<Long> ok = new ArrayList<>();
+            for (int i = 0; i < statuses.length; i++) {
+                if (statuses[i] == 200) {
+                    ok.add(latencies[i]);
+                }
+            }
+            return ok.stream().mapToLong(Long::longValue).sorted().toArray();
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.ecom177.bench;
+
+import com.ecom177.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Verifying the bearer token on every request, from many threads at once: a full signature
+ * check each time, the verified-token cache behind one lock (the original design), and
+ * {@link JwtUtil}'s concurrent cache.
+ * <p>
+ * {@code mvn -Pbench test-compile exec:exec -Dbench.args=JwtVerification}
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Threads(8)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtVerificationBenchmark {
+
+    private static final String SECRET = "benchmarkSecretKeyThatIsLongEnoughForHmacSha256Signing";
+
+    /** Distinct tokens in circulation, i.e. concurrently active sessions. */
+    @Param({"1000"})
+    private int tokens;
+
+    private String[] pool;
+    private JwtParser parser;
+    private JwtUtil jwtUtil;
+    private Map<String, Claims> lockedCache;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(jwtUtil, "jwtExpirationMs", 3_600_000);
+        ReflectionTestUtils.setField(jwtUtil, "verifiedCacheSize", 10_000);
+        ReflectionTestUtils.invokeMethod(jwtUtil, "init");
+
+        pool = new String[tokens];
+        for (int i = 0; i < tokens; i++) {
+            pool[i] = jwtUtil.generateToken(User.withUsername("user" + i).password("x").roles("USER").build());
+        }
+        parser = Jwts.parserBuilder().setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes())).build();
+        lockedCache = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Claims> eldest) {
+                return size() > 10_000;
+            }
+        };
+    }
+
+    @Benchmark
+    public Claims parseEveryTime() {
+        return parser.parseClaimsJws(nextToken()).getBody();
+    }
+
+    @Benchmark
+    public Claims synchronizedLru() {
+        String token = nextToken();
+        synchronized (lockedCache) {
+            Claims cached = lockedCache.get(token);
+            if (cached != null && cached.getExpiration().getTime() > System.currentTimeMillis()) {
+                return cached;
+            }
+        }
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        synchronized (lockedCache) {
+            lockedCache.put(token, claims);
+        }
+        return claims;
+    }
+
+    @Benchmark
+    public Claims concurrentCache() {
+        return jwtUtil.extractAllClaims(nextToken());
+    }
+
+    private String nextToken() {
+        return pool[ThreadLocalRandom.current().nextInt(pool.length)];
+    }
+}
@@ -0,0 +1,180 @@
+package com.ecom177.bench;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+/**
+ * Inserting 10k order items in one transaction, in inserts per second: ids from an identity
+ * column (the original mapping, which makes Hibernate insert row by row to read each id back)
+ * against ids from a pooled sequence with JDBC batching, as {@code order_items} is mapped now.
+ * Both use the application's batch settings and flush every batch.
+ * <p>
+ * Runs on in-memory H2; {@code -p url=jdbc:postgresql://host/db?user=..&password=..} measures
+ * a real server, where every identity round trip costs a network hop.
+ * <p>
+ * {@code mvn -Pbench test-compile exec:exec -Dbench.args=OrderItemInsert}
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class OrderItemInsertBenchmark {
+
+    private static final int ITEMS = 10_000;
+    private static final int BATCH_SIZE = 50;
+
+    @Param({"identity", "sequence"})
+    private String ids;
+
+    @Param({"jdbc:h2:mem:order_item_insert;DB_CLOSE_DELAY=-1"})
+    private String url;
+
+    private SessionFactory sessionFactory;
+    private IntFunction<Object> newItem;
+    private String entityName;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        sessionFactory = new Configuration()
+                .addAnnotatedClass(IdentityItem.class)
+                .addAnnotatedClass(SequenceItem.class)
+                .setProperty(AvailableSettings.URL, url)
+                .setProperty(AvailableSettings.HBM2DDL_AUTO, "create-drop")
+                .setProperty(AvailableSettings.STATEMENT_BATCH_SIZE, String.valueOf(BATCH_SIZE))
+                .setProperty(AvailableSettings.ORDER_INSERTS, "true")
+                .setProperty(AvailableSettings.SHOW_SQL, "false")
+                .buildSessionFactory();
+        if ("identity".equals(ids)) {
+            newItem = IdentityItem::new;
+            entityName = IdentityItem.class.getSimpleName();
+        } else {
+            newItem = SequenceItem::new;
+            entityName = SequenceItem.class.getSimpleName();
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void truncate() {
+        sessionFactory.inTransaction(session ->
+                session.createMutationQuery("delete from " + entityName).executeUpdate());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        sessionFactory.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ITEMS)
+    public void insertOrderItems() {
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+            for (int i = 0; i < ITEMS; i++) {
+                session.persist(newItem.apply(i));
+                if ((i + 1) % BATCH_SIZE == 0) {
+                    session.flush();
+                    session.clear();
+                }
+            }
+            session.getTransaction().commit();
+        }
+    }
+
+    /** Columns of {@code order_items}, with the foreign keys as plain values. */
+    @Entity(name = "IdentityItem")
+    @Table(name = "bench_identity_items")
+    public static class IdentityItem {
+        @Id
+        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        private Long id;
+
+        @Column(name = "order_id", nullable = false)
+        private Long orderId;
+
+        @Column(name = "product_id", nullable = false)
+        private Long productId;
+
+        @Column(nullable = false)
+        private Integer quantity;
+
+        @Column(name = "unit_price", nullable = false, precision = 10, scale = 2)
+        private BigDecimal unitPrice;
+
+        @Column(name = "total_price", nullable = false, precision = 10, scale = 2)
+        private BigDecimal totalPrice;
+
+        public IdentityItem() {}
+
+        IdentityItem(int i) {
+            orderId = (long) (i / 5 + 1);
+            productId = (long) (i % 100 + 1);
+            quantity = i % 3 + 1;
+            unitPrice = BigDecimal.valueOf(1999, 2);
+            totalPrice = unitPrice.multiply(BigDecimal.valueOf(quantity));
+        }
+    }
+
+    /** Same columns, with the id mapping of {@link com.ecom177.entity.OrderItem}. */
+    @Entity(name = "SequenceItem")
+    @Table(name = "bench_sequence_items")
+    public static class SequenceItem {
+        @Id
+        @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bench_sequence_items_seq")
+        @SequenceGenerator(name = "bench_sequence_items_seq", sequenceName = "bench_sequence_items_seq", allocationSize = 50)
+        private Long id;
+
+        @Column(name = "order_id", nullable = false)
+        private Long orderId;
+
+        @Column(name = "product_id", nullable = false)
+        private Long productId;
+
+        @Column(nullable = false)
+        private Integer quantity;
+
+        @Column(name = "unit_price", nullable = false, precision = 10, scale = 2)
+        private BigDecimal unitPrice;
+
+        @Column(name = "total_price", nullable = false, precision = 10, scale = 2)
+        private BigDecimal totalPrice;
+
+        public SequenceItem() {}
+
+        SequenceItem(int i) {
+            orderId = (long) (i / 5 + 1);
+            productId = (long) (i % 100 + 1);
+            quantity = i % 3 + 1;
+            unitPrice = BigDecimal.valueOf(1999, 2);
+            totalPrice = unitPrice.multiply(BigDecimal.valueOf(quantity));
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.ecom177.bench;
+
+import com.ecom177.dto.OrderResponse;
+import com.ecom177.dto.ProductResponse;
+import com.ecom177.util.FieldSelection;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The response formats offered through content negotiation: encoding and decoding time for a
+ * page of 200 products or 50 orders in JSON, CBOR and Smile, and the encoded size, printed once
+ * per trial. The mappers are built like {@code JacksonConfig}'s, from one builder with a
+ * different factory, so all three share the modules, date handling and filters.
+ * <p>
+ * {@code mvn -Pbench test-compile exec:exec -Dbench.args=SerializationFormat}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationFormatBenchmark {
+
+    @Param({"json", "cbor", "smile"})
+    private String format;
+
+    @Param({"products", "orders"})
+    private String payload;
+
+    private ObjectMapper mapper;
+    private Object value;
+    private JavaType type;
+    private byte[] encoded;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        JsonFactory factory = switch (format) {
+            case "json" -> new JsonFactory();
+            case "cbor" -> new CBORFactory();
+            case "smile" -> new SmileFactory();
+            default -> throw new IllegalArgumentException("Unknown format: " + format);
+        };
+        // Boot's builder defaults plus the application's field-selection filter
+        mapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .filters(new SimpleFilterProvider()
+                        .addFilter(FieldSelection.FILTER_ID, SimpleBeanPropertyFilter.serializeAll()))
+                .factory(factory)
+                .build();
+        if ("products".equals(payload)) {
+            value = products(200);
+            type = mapper.getTypeFactory().constructCollectionType(List.class, ProductResponse.class);
+        } else {
+            value = orders(50);
+            type = mapper.getTypeFactory().constructCollectionType(List.class, OrderResponse.class);
+        }
+        encoded = mapper.writeValueAsBytes(value);
+        System.out.printf("Encoded: %,d bytes%n", encoded.length);
+    }
+
+    @Benchmark
+    public byte[] encode() throws Exception {
+        return mapper.writeValueAsBytes(value);
+    }
+
+    @Benchmark
+    public Object decode() throws Exception {
+        return mapper.readValue(encoded, type);
+    }
+
+    private static List<ProductResponse> products(int count) {
+        List<ProductResponse> products = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            products.add(new ProductResponse((long) i, "Product " + i,
+                    "Description of product " + i + ", long enough to look like a real catalog entry",
+                    BigDecimal.valueOf(1000 + i, 2), 10 + i, (long) (i % 3 + 1), "Category " + (i % 3 + 1),
+                    null, "/api/products/" + i + "/image"));
+        }
+        return products;
+    }
+
+    private static List<OrderResponse> orders(int count) {
+        LocalDateTime now = LocalDateTime.of(2024, 1, 1, 12, 0);
+        List<OrderResponse> orders = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            List<OrderResponse.OrderItemResponse> items = new ArrayList<>();
+            BigDecimal total = BigDecimal.ZERO;
+            for (int j = 1; j <= 3; j++) {
+                long productId = (i * 7L + j) % 200 + 1;
+                BigDecimal unitPrice = BigDecimal.valueOf(1000 + productId, 2);
+                BigDecimal itemTotal = unitPrice.multiply(BigDecimal.valueOf(j));
+                items.add(new OrderResponse.OrderItemResponse((long) (i * 3 + j), productId, "Product " + productId,
+                        "/api/products/" + productId + "/image", j, unitPrice, itemTotal));
+                total = total.add(itemTotal);
+            }
+            orders.add(new OrderResponse((long) i, (long) (i % 10 + 1), "user" + (i % 10 + 1), now.minusHours(i),
+                    "PENDING", total, i + " Main Street, Springfield", items, now.minusHours(i), now.minusHours(i)));
+        }
+        return orders;
+    }
+}
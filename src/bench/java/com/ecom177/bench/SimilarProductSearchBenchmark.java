@@ -0,0 +1,93 @@
+package com.ecom177.bench;
+
+import com.ecom177.util.HnswIndex;
+import com.ecom177.util.TextVectorizer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of the similar-products HNSW search against an exact linear scan over the same index,
+ * with recall@k of the HNSW results printed once per trial. The catalog is synthetic but
+ * vectorised exactly like {@code SimilarProductService} does it.
+ * <p>
+ * {@code mvn -Pbench test-compile exec:exec -Dbench.args=SimilarProductSearch}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SimilarProductSearchBenchmark {
+
+    private static final int QUERIES = 256;
+
+    @Param({"1000", "10000"})
+    private int products;
+
+    @Param({"32", "64"})
+    private int efSearch;
+
+    @Param("10")
+    private int k;
+
+    private HnswIndex index;
+    private float[][] queries;
+    private long[] queryKeys;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        TextVectorizer vectorizer = new TextVectorizer(256);
+        index = new HnswIndex(vectorizer.getDimension(), 16, 100);
+        SyntheticCatalog catalog = new SyntheticCatalog(42);
+        for (long id = 1; id <= products; id++) {
+            index.add(id, vectorizer.vectorize(catalog.name(), 2.0f, catalog.description()));
+        }
+
+        Random random = new Random(7);
+        queries = new float[QUERIES][];
+        queryKeys = new long[QUERIES];
+        int hits = 0;
+        int expected = 0;
+        for (int i = 0; i < QUERIES; i++) {
+            queryKeys[i] = 1 + random.nextInt(products);
+            queries[i] = index.getVector(queryKeys[i]);
+            Set<Long> truth = new HashSet<>();
+            index.bruteForce(queries[i], k, queryKeys[i]).forEach(r -> truth.add(r.getKey()));
+            hits += (int) index.search(queries[i], k, efSearch, queryKeys[i]).stream()
+                    .filter(r -> truth.contains(r.getKey())).count();
+            expected += truth.size();
+        }
+        System.out.printf("%nrecall@%d (products=%d, efSearch=%d): %.3f%n",
+                k, products, efSearch, (double) hits / expected);
+    }
+
+    @Benchmark
+    public List<HnswIndex.Result> hnsw() {
+        int i = next++ & (QUERIES - 1);
+        return index.search(queries[i], k, efSearch, queryKeys[i]);
+    }
+
+    @Benchmark
+    public List<HnswIndex.Result> bruteForce() {
+        int i = next++ & (QUERIES - 1);
+        return index.bruteForce(queries[i], k, queryKeys[i]);
+    }
+}
@@ -0,0 +1,94 @@
+package com.ecom177.bench;
+
+import com.ecom177.dto.ProductResponse;
+import com.ecom177.util.FieldSelection;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializing a {@code GET /api/products} page with every field against a {@code fields=}
+ * selection: time per response, and the response size, printed once per trial.
+ * Products carry inline base64 images of {@code imageBytes} bytes, as uploads without object
+ * storage do. Uses the application's filter setup: a {@code serializeAll} default on the mapper
+ * and the filter {@link FieldSelection#apply} attaches per response. Only serialization is
+ * measured; the column-pruned queries save database time on top.
+ * <p>
+ * {@code mvn -Pbench test-compile exec:exec -Dbench.args=SparseFieldset}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SparseFieldsetBenchmark {
+
+    @Param({"30"})
+    private int products;
+
+    @Param({"0", "45000"})
+    private int imageBytes;
+
+    /** A {@code fields=} value, or {@code all} for no parameter. */
+    @Param({"all", "name,price", "name,price,stockQuantity,categoryName,imageUrl"})
+    private String fields;
+
+    private List<ProductResponse> page;
+    private ObjectWriter writer;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        ObjectMapper mapper = Jackson2ObjectMapperBuilder.json()
+                .filters(new SimpleFilterProvider()
+                        .addFilter(FieldSelection.FILTER_ID, SimpleBeanPropertyFilter.serializeAll()))
+                .build();
+        FieldSelection selection = "all".equals(fields)
+                ? FieldSelection.all()
+                : FieldSelection.parse(fields, ProductResponse.FIELDS);
+        // What MappingJackson2HttpMessageConverter does with the MappingJacksonValue
+        writer = selection.isAll() ? mapper.writer() : mapper.writer(selection.apply(null).getFilters());
+
+        Random random = new Random(42);
+        page = new ArrayList<>(products);
+        for (int i = 1; i <= products; i++) {
+            String image = null;
+            if (imageBytes > 0) {
+                byte[] raw = new byte[imageBytes];
+                random.nextBytes(raw);
+                image = Base64.getEncoder().encodeToString(raw);
+            }
+            page.add(new ProductResponse((long) i, "Product " + i,
+                    "Description of product " + i + ", long enough to look like a real catalog entry",
+                    BigDecimal.valueOf(1000 + i, 2), 10 + i, (long) (i % 3 + 1), "Category " + (i % 3 + 1),
+                    image, image == null ? null : "/api/products/" + i + "/image"));
+        }
+        System.out.printf("Payload: %,d bytes%n", serialize().length);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws Exception {
+        return writer.writeValueAsBytes(page);
+    }
+}
@@ -0,0 +1,52 @@
+package com.ecom177.bench;
+
+import java.util.Random;
+
+/**
+ * Deterministic product names and descriptions drawn from a small vocabulary, so related
+ * products share words the way a real catalog does.
+ */
+public class SyntheticCatalog {
+
+    private static final String[] BRANDS = {
+            "Acme", "Northwind", "Contoso", "Globex", "Initech", "Umbrella", "Hooli", "Stark", "Wayne", "Tyrell"
+    };
+    private static final String[] ADJECTIVES = {
+            "wireless", "portable", "compact", "premium", "ergonomic", "waterproof", "smart", "classic",
+            "lightweight", "stainless", "organic", "vintage", "foldable", "rechargeable", "heavy-duty", "mini"
+    };
+    private static final String[] NOUNS = {
+            "headphones", "speaker", "keyboard", "mouse", "monitor", "backpack", "jacket", "sneakers",
+            "kettle", "blender", "lamp", "chair", "desk", "watch", "camera", "charger", "bottle", "tent",
+            "drill", "router", "tablet", "novel", "cookbook", "yoga mat", "dumbbell", "helmet"
+    };
+    private static final String[] WORDS = {
+            "durable", "design", "battery", "life", "comfort", "fit", "everyday", "use", "travel", "home",
+            "office", "outdoor", "sound", "quality", "fast", "charging", "easy", "clean", "steel", "cotton",
+            "leather", "bluetooth", "usb-c", "warranty", "gift", "kids", "adults", "sports", "kitchen", "garden"
+    };
+
+    private final Random random;
+    private long sequence;
+
+    public SyntheticCatalog(long seed) {
+        this.random = new Random(seed);
+    }
+
+    public String name() {
+        return pick(BRANDS) + " " + pick(ADJECTIVES) + " " + pick(NOUNS) + " " + (100 + (++sequence % 900));
+    }
+
+    public String description() {
+        StringBuilder description = new StringBuilder(pick(ADJECTIVES)).append(' ').append(pick(NOUNS));
+        int words = 8 + random.nextInt(8);
+        for (int i = 0; i < words; i++) {
+            description.append(' ').append(pick(WORDS));
+        }
+        return description.toString();
+    }
+
+    public String pick(String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}
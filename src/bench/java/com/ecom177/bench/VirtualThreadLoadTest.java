@@ -0,0 +1,128 @@
+package com.ecom177.bench;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Open-loop load test of request handling against a slow database behind a Hikari pool: a
+ * platform pool sized like Tomcat's default 200 threads, virtual threads with Hikari's default
+ * 30s connection timeout, and virtual threads with the {@code virtual-threads} profile's 5s.
+ * <p>
+ * Requests arrive at a fixed rate whether or not earlier ones finished, and latency is taken
+ * from the scheduled arrival, so time spent queued for a thread or a connection is counted.
+ * Each request runs one query that holds its connection for {@code load.db-ms}, which bounds
+ * the pool at {@code pool * 1000 / db-ms} requests per second; the default rates sit below
+ * and above that.
+ * <p>
+ * {@code mvn -Pbench test-compile exec:exec -Dbench.main=com.ecom177.bench.VirtualThreadLoadTest
+ * -Dbench.args="300 800"}, tuned with {@code -Dbench.jvmArgs="-Dload.seconds=30 -Dload.db-ms=20 -Dload.pool=10"}.
+ */
+public class VirtualThreadLoadTest {
+
+    private static final int SECONDS = Integer.getInteger("load.seconds", 15);
+    private static final int DB_MS = Integer.getInteger("load.db-ms", 20);
+    private static final int POOL = Integer.getInteger("load.pool", 10);
+    private static final int TOMCAT_THREADS = 200;
+
+    private static final AtomicInteger databases = new AtomicInteger();
+
+    public static void main(String[] args) throws Exception {
+        ((Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+        int[] rates = args.length == 0 ? new int[] {300, 800} : Arrays.stream(args).mapToInt(Integer::parseInt).toArray();
+        System.out.printf("pool=%d, query holds its connection %d ms (capacity %d req/s), %d s per run%n%n",
+                POOL, DB_MS, POOL * 1000 / DB_MS, SECONDS);
+        System.out.printf("%-28s %8s %10s %10s %10s %10s %8s%n",
+                "scenario", "rate/s", "ok/s", "p50 ms", "p99 ms", "max ms", "failed");
+        for (int rate : rates) {
+            run("platform-200, timeout 30s", rate, 30_000,
+                    () -> new ThreadPoolExecutor(TOMCAT_THREADS, TOMCAT_THREADS, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>()));
+            run("virtual, timeout 30s", rate, 30_000, Executors::newVirtualThreadPerTaskExecutor);
+            run("virtual, timeout 5s", rate, 5_000, Executors::newVirtualThreadPerTaskExecutor);
+        }
+    }
+
+    private static void run(String scenario, int rate, long connectionTimeoutMs,
+                            Supplier<ExecutorService> executorFactory) throws Exception {
+        try (HikariDataSource dataSource = pool(connectionTimeoutMs)) {
+            int requests = rate * SECONDS;
+            long[] latencies = new long[requests];
+            AtomicInteger failed = new AtomicInteger();
+            AtomicLong lastCompletion = new AtomicLong();
+            long periodNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+
+            ExecutorService executor = executorFactory.get();
+            long start = System.nanoTime();
+            for (int i = 0; i < requests; i++) {
+                long arrival = start + i * periodNanos;
+                long wait = arrival - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                int request = i;
+                executor.execute(() -> {
+                    try (Connection connection = dataSource.getConnection();
+                         Statement statement = connection.createStatement()) {
+                        statement.execute("SELECT SLEEP_MS(" + DB_MS + ")");
+                        latencies[request] = System.nanoTime() - arrival;
+                    } catch (SQLException e) {
+                        latencies[request] = -1;
+                        failed.incrementAndGet();
+                    }
+                    lastCompletion.accumulateAndGet(System.nanoTime(), Math::max);
+                });
+            }
+            executor.shutdown();
+            executor.awaitTermination(SECONDS + connectionTimeoutMs / 1000 + 600, TimeUnit.SECONDS);
+
+            long[] ok = Arrays.stream(latencies).filter(latency -> latency >= 0).sorted().toArray();
+            double elapsedSeconds = (lastCompletion.get() - start) / 1e9;
+            System.out.printf("%-28s %8d %10.0f %10.1f %10.1f %10.1f %8d%n", scenario, rate,
+                    ok.length / elapsedSeconds, percentile(ok, 0.50), percentile(ok, 0.99),
+                    ok.length == 0 ? 0.0 : ok[ok.length - 1] / 1e6, failed.get());
+        }
+    }
+
+    private static HikariDataSource pool(long connectionTimeoutMs) throws SQLException {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl("jdbc:h2:mem:load" + databases.incrementAndGet() + ";DB_CLOSE_DELAY=-1");
+        config.setMaximumPoolSize(POOL);
+        config.setMinimumIdle(POOL);
+        config.setConnectionTimeout(connectionTimeoutMs);
+        HikariDataSource dataSource = new HikariDataSource(config);
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE ALIAS IF NOT EXISTS SLEEP_MS FOR \"" + VirtualThreadLoadTest.class.getName() + ".sleep\"");
+        }
+        return dataSource;
+    }
+
+    /** Stands in for a slow query: called by H2 while the connection is held. */
+    public static int sleep(int millis) throws InterruptedException {
+        Thread.sleep(millis);
+        return millis;
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0.0;
+        }
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1)] / 1e6;
+    }
+}
@@ -2,8 +2,13 @@ package com.ecom177;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
-@SpringBootApplication
+// R2DBC is only used internally by the optional reactive catalog; an auto-configured
+// ConnectionFactory bean would make Boot skip the JDBC DataSource that JPA relies on
+@SpringBootApplication(exclude = R2dbcAutoConfiguration.class)
+@EnableScheduling
 public class EcomApplication {
     public static void main(String[] args) {
         SpringApplication.run(EcomApplication.class, args);
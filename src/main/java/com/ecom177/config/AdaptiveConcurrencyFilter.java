@@ -0,0 +1,300 @@
+package com.ecom177.config;
+
+import com.ecom177.dto.ErrorResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Caps in-flight requests per route group with a limit that follows the group's latency, so
+ * excess load is refused with a 503 up front instead of queueing for a database connection.
+ * Applied before {@link JwtAuthenticationFilter}, so a refused request costs no token parsing.
+ * <p>
+ * Groups come from {@code app.concurrency-limit.groups} as a comma-separated list of
+ * {@code name=[METHOD ]pattern;[METHOD ]pattern...}; the first group with a matching pattern
+ * applies and requests matching no group are not limited.
+ * <p>
+ * Each group's limit is adjusted once per window with a gradient: while the window's average
+ * latency stays within {@code tolerance} times the long-term average the limit grows by about
+ * its square root, and as latency rises beyond that it shrinks by up to half. Groups are ranked
+ * by {@code app.concurrency-limit.priority}; while a higher-ranked group is saturated or slowing
+ * down, every lower-ranked group is held to half its limit, so browsing gives way to checkout.
+ * <p>
+ * Metrics: {@code http.concurrency.limit{group}}, {@code http.concurrency.in_flight{group}} and
+ * {@code http.concurrency.rejected{group}}.
+ */
+@Component
+public class AdaptiveConcurrencyFilter extends OncePerRequestFilter {
+
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final List<Group> groups;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    public AdaptiveConcurrencyFilter(ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                                     @Value("${app.concurrency-limit.enabled:true}") boolean enabled,
+                                     @Value("${app.concurrency-limit.groups:}") String groups,
+                                     @Value("${app.concurrency-limit.priority:}") String priority,
+                                     @Value("${app.concurrency-limit.initial-limit:20}") int initialLimit,
+                                     @Value("${app.concurrency-limit.min-limit:4}") int minLimit,
+                                     @Value("${app.concurrency-limit.max-limit:200}") int maxLimit,
+                                     @Value("${app.concurrency-limit.tolerance:1.5}") double tolerance,
+                                     @Value("${app.concurrency-limit.smoothing:0.2}") double smoothing,
+                                     @Value("${app.concurrency-limit.window-ms:250}") long windowMs,
+                                     @Value("${app.concurrency-limit.long-window:100}") int longWindow) {
+        if (minLimit < 1 || maxLimit < minLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Concurrency limits must satisfy 1 <= min-limit <= initial-limit <= max-limit");
+        }
+        if (tolerance < 1 || smoothing <= 0 || smoothing > 1 || windowMs < 1 || longWindow < 1) {
+            throw new IllegalArgumentException("Invalid concurrency limit settings: tolerance must be at least 1, "
+                    + "smoothing in (0, 1], window-ms and long-window positive");
+        }
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        Settings settings = new Settings(initialLimit, minLimit, maxLimit, tolerance, smoothing,
+                TimeUnit.MILLISECONDS.toNanos(windowMs), 2.0 / (longWindow + 1));
+        this.groups = parseGroups(groups, priority, settings, meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || groups.isEmpty();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        Group group = match(request);
+        if (group == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        if (!group.tryAcquire(effectiveLimit(group))) {
+            group.rejected.increment();
+            reject(response);
+            return;
+        }
+        long start = System.nanoTime();
+        boolean async = false;
+        try {
+            filterChain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                // Streaming imports and exports run far longer than ordinary requests; they hold
+                // their slot until they finish but are kept out of the latency measurements
+                request.getAsyncContext().addListener(new ReleaseOnCompletion(group));
+                async = true;
+            }
+        } finally {
+            if (!async) {
+                group.release(System.nanoTime() - start);
+            }
+        }
+    }
+
+    private int effectiveLimit(Group group) {
+        int limit = (int) group.limit;
+        for (Group other : groups) {
+            if (other.rank < group.rank && other.isCongested()) {
+                return Math.max(1, limit / 2);
+            }
+        }
+        return limit;
+    }
+
+    private Group match(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (Group group : groups) {
+            for (Route route : group.routes) {
+                if ((route.method == null || route.method.equalsIgnoreCase(request.getMethod()))
+                        && pathMatcher.match(route.pattern, path)) {
+                    return group;
+                }
+            }
+        }
+        return null;
+    }
+
+    private void reject(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), new ErrorResponse("The service is busy, please retry shortly"));
+    }
+
+    private static List<Group> parseGroups(String spec, String priority, Settings settings, MeterRegistry meterRegistry) {
+        List<String> ranking = Arrays.stream(priority.split(",")).map(String::trim).filter(name -> !name.isEmpty()).toList();
+        List<Group> parsed = new ArrayList<>();
+        for (String raw : spec.split(",")) {
+            String entry = raw.trim();
+            if (entry.isEmpty()) {
+                continue;
+            }
+            int equals = entry.indexOf('=');
+            if (equals < 1) {
+                throw new IllegalArgumentException("Invalid concurrency limit group '" + entry
+                        + "', expected name=[METHOD ]pattern;[METHOD ]pattern...");
+            }
+            String name = entry.substring(0, equals).trim();
+            List<Route> routes = new ArrayList<>();
+            for (String rawRoute : entry.substring(equals + 1).split(";")) {
+                String route = rawRoute.trim();
+                if (route.isEmpty()) {
+                    continue;
+                }
+                int space = route.indexOf(' ');
+                routes.add(space > 0
+                        ? new Route(route.substring(0, space), route.substring(space + 1).trim())
+                        : new Route(null, route));
+            }
+            if (routes.isEmpty()) {
+                throw new IllegalArgumentException("Concurrency limit group '" + name + "' has no patterns");
+            }
+            int rank = ranking.indexOf(name);
+            Group group = new Group(rank < 0 ? ranking.size() : rank, List.copyOf(routes), settings,
+                    Counter.builder("http.concurrency.rejected").tag("group", name).register(meterRegistry));
+            Gauge.builder("http.concurrency.limit", group, g -> g.limit).tag("group", name).register(meterRegistry);
+            Gauge.builder("http.concurrency.in_flight", group, g -> g.inFlight.get()).tag("group", name).register(meterRegistry);
+            parsed.add(group);
+        }
+        return List.copyOf(parsed);
+    }
+
+    private record Route(String method, String pattern) {
+    }
+
+    private record Settings(int initialLimit, int minLimit, int maxLimit, double tolerance, double smoothing,
+                            long windowNanos, double longRttWeight) {
+    }
+
+    private static final class Group {
+        private final int rank;
+        private final List<Route> routes;
+        private final Settings settings;
+        private final Counter rejected;
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        // Read without locking on the request path; only written under the lock in release()
+        private volatile double limit;
+        private volatile boolean slowing;
+
+        private long windowStart = System.nanoTime();
+        private long windowSum;
+        private int windowCount;
+        private int windowMaxInFlight;
+        private double longRtt;
+
+        Group(int rank, List<Route> routes, Settings settings, Counter rejected) {
+            this.rank = rank;
+            this.routes = routes;
+            this.settings = settings;
+            this.rejected = rejected;
+            this.limit = settings.initialLimit;
+        }
+
+        boolean tryAcquire(int maxInFlight) {
+            while (true) {
+                int current = inFlight.get();
+                if (current >= maxInFlight) {
+                    return false;
+                }
+                if (inFlight.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        boolean isCongested() {
+            return slowing || inFlight.get() >= (int) limit;
+        }
+
+        void release() {
+            inFlight.decrementAndGet();
+        }
+
+        void release(long rttNanos) {
+            int inFlightAtCompletion = inFlight.getAndDecrement();
+            synchronized (this) {
+                windowSum += rttNanos;
+                windowCount++;
+                windowMaxInFlight = Math.max(windowMaxInFlight, inFlightAtCompletion);
+                long now = System.nanoTime();
+                if (now - windowStart >= settings.windowNanos) {
+                    update((double) windowSum / windowCount);
+                    windowStart = now;
+                    windowSum = 0;
+                    windowCount = 0;
+                    windowMaxInFlight = 0;
+                }
+            }
+        }
+
+        private void update(double shortRtt) {
+            if (longRtt == 0) {
+                longRtt = shortRtt;
+                return;
+            }
+            longRtt += (shortRtt - longRtt) * settings.longRttWeight;
+            // After a sustained slowdown the baseline has crept up; let it fall back quickly
+            // once latency recovers, or the limit would stay inflated
+            if (longRtt / shortRtt > 2) {
+                longRtt *= 0.95;
+            }
+            double gradient = Math.max(0.5, Math.min(1.0, settings.tolerance * longRtt / shortRtt));
+            slowing = gradient < 1.0;
+            // A group that never got near its limit says nothing about whether it could take more
+            if (gradient == 1.0 && windowMaxInFlight < limit / 2) {
+                return;
+            }
+            double target = limit * gradient + Math.sqrt(limit);
+            double next = limit * (1 - settings.smoothing) + target * settings.smoothing;
+            limit = Math.max(settings.minLimit, Math.min(settings.maxLimit, next));
+        }
+    }
+
+    private static final class ReleaseOnCompletion implements AsyncListener {
+        private final Group group;
+
+        ReleaseOnCompletion(Group group) {
+            this.group = group;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            group.release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // Re-register for the new async cycle so the slot is released exactly once
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
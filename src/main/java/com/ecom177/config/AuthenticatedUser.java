@@ -0,0 +1,47 @@
+package com.ecom177.config;
+
+import com.ecom177.entity.User;
+import org.springframework.security.core.AuthenticatedPrincipal;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Principal built from verified JWT claims alone. It carries just enough to authorize a request
+ * and identify the caller; code that needs the full {@link User} entity resolves it by id or
+ * username on demand.
+ */
+public class AuthenticatedUser implements AuthenticatedPrincipal {
+
+    private final Long id;
+    private final String username;
+    private final User.Role role;
+    private final List<GrantedAuthority> authorities;
+
+    public AuthenticatedUser(Long id, String username, User.Role role) {
+        this.id = id;
+        this.username = username;
+        this.role = role;
+        this.authorities = List.of(new SimpleGrantedAuthority("ROLE_" + role.name()));
+    }
+
+    public Long getId() { return id; }
+
+    public String getUsername() { return username; }
+
+    public User.Role getRole() { return role; }
+
+    public Collection<GrantedAuthority> getAuthorities() { return authorities; }
+
+    @Override
+    public String getName() {
+        return username;
+    }
+
+    @Override
+    public String toString() {
+        return username;
+    }
+}
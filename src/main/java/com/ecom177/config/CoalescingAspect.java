@@ -0,0 +1,122 @@
+package com.ecom177.config;
+
+import com.ecom177.event.CategoryChangedEvent;
+import com.ecom177.event.ProductChangedEvent;
+import com.ecom177.exception.ServiceUnavailableException;
+import com.ecom177.util.Coalesced;
+import com.ecom177.util.SingleFlight;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Applies {@link Coalesced}. Runs outside {@code @Transactional}, so only the leader of a
+ * coalesced group opens a transaction and takes a database connection, and inside
+ * {@link ServeStaleAspect}, so every caller of a failed group can fall back on its own.
+ * <p>
+ * Calls only join a flight started under the same catalog generation, which every product or
+ * category write bumps once committed (as in {@code ProductSearchCache}). A caller whose own
+ * write has committed therefore never receives a result read before it. Callers kept on the
+ * primary by {@link ReplicaRoutingDataSource} after a recent write are not coalesced at all.
+ * <p>
+ * Metrics: {@code coalescing.calls{method, result=executed|coalesced|bypassed}},
+ * {@code coalescing.timeouts{method}} and {@code coalescing.in.flight}.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class CoalescingAspect {
+
+    private final SingleFlight<Key, Object> singleFlight = new SingleFlight<>();
+    private final MeterRegistry meterRegistry;
+    // Only present when replicas are configured
+    private final ObjectProvider<ReplicaRoutingDataSource> replicaRouting;
+    private final long maxWaitMs;
+    private final Map<Method, Meters> meters = new ConcurrentHashMap<>();
+    private final AtomicLong catalogGeneration = new AtomicLong();
+
+    public CoalescingAspect(MeterRegistry meterRegistry, ObjectProvider<ReplicaRoutingDataSource> replicaRouting,
+                            @Value("${app.coalescing.max-wait-ms:2000}") long maxWaitMs) {
+        this.meterRegistry = meterRegistry;
+        this.replicaRouting = replicaRouting;
+        this.maxWaitMs = maxWaitMs;
+        Gauge.builder("coalescing.in.flight", singleFlight, SingleFlight::inFlight).register(meterRegistry);
+    }
+
+    @Around("@annotation(com.ecom177.util.Coalesced)")
+    public Object coalesce(ProceedingJoinPoint joinPoint) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        Meters methodMeters = meters.computeIfAbsent(method, this::createMeters);
+        ReplicaRoutingDataSource routing = replicaRouting.getIfAvailable();
+        if (routing != null && routing.isCurrentRequestSticky()) {
+            methodMeters.bypassed.increment();
+            return joinPoint.proceed();
+        }
+        Key key = new Key(method, catalogGeneration.get(), Arrays.asList(joinPoint.getArgs()));
+        SingleFlight.Result<Object> result;
+        try {
+            result = singleFlight.execute(key, () -> proceed(joinPoint), maxWaitMs);
+        } catch (TimeoutException e) {
+            methodMeters.timeouts.increment();
+            throw new ServiceUnavailableException("The service is busy, please retry shortly", 1);
+        } catch (UndeclaredThrowableException e) {
+            throw e.getUndeclaredThrowable();
+        }
+        (result.outcome() == SingleFlight.Outcome.EXECUTED ? methodMeters.executed : methodMeters.coalesced).increment();
+        return result.value();
+    }
+
+    @TransactionalEventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        catalogGeneration.incrementAndGet();
+    }
+
+    @TransactionalEventListener
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        catalogGeneration.incrementAndGet();
+    }
+
+    private static Object proceed(ProceedingJoinPoint joinPoint) {
+        try {
+            return joinPoint.proceed();
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new UndeclaredThrowableException(e);
+        }
+    }
+
+    private Meters createMeters(Method method) {
+        String name = method.getDeclaringClass().getSimpleName() + "." + method.getName();
+        return new Meters(
+                Counter.builder("coalescing.calls").tag("method", name).tag("result", "executed").register(meterRegistry),
+                Counter.builder("coalescing.calls").tag("method", name).tag("result", "coalesced").register(meterRegistry),
+                Counter.builder("coalescing.calls").tag("method", name).tag("result", "bypassed").register(meterRegistry),
+                Counter.builder("coalescing.timeouts").tag("method", name).register(meterRegistry));
+    }
+
+    private record Key(Method method, long catalogGeneration, List<Object> args) {
+    }
+
+    private record Meters(Counter executed, Counter coalesced, Counter bypassed, Counter timeouts) {
+    }
+}
@@ -4,25 +4,31 @@ import com.ecom177.entity.User;
 import com.ecom177.entity.Category;
 import com.ecom177.entity.Product;
 import com.ecom177.repository.UserRepository;
+import com.ecom177.repository.CategoryClosureRepository;
 import com.ecom177.repository.CategoryRepository;
 import com.ecom177.repository.ProductRepository;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
 
 @Component
 public class DataSeeder implements CommandLineRunner {
     
     private final UserRepository userRepository;
     private final CategoryRepository categoryRepository;
+    private final CategoryClosureRepository categoryClosureRepository;
     private final ProductRepository productRepository;
     private final PasswordEncoder passwordEncoder;
     
     public DataSeeder(UserRepository userRepository, CategoryRepository categoryRepository, 
+                      CategoryClosureRepository categoryClosureRepository,
                       ProductRepository productRepository, PasswordEncoder passwordEncoder) {
         this.userRepository = userRepository;
         this.categoryRepository = categoryRepository;
+        this.categoryClosureRepository = categoryClosureRepository;
         this.productRepository = productRepository;
         this.passwordEncoder = passwordEncoder;
     }
@@ -31,6 +37,8 @@ public class DataSeeder implements CommandLineRunner {
     public void run(String... args) throws Exception {
         // Create default categories
         createDefaultCategories();
+        // Seeded categories bypass CategoryService, so give them their closure rows here
+        categoryClosureRepository.insertMissingSelfLinks();
         
         // Create sample products
         createSampleProducts();
@@ -67,18 +75,16 @@ public class DataSeeder implements CommandLineRunner {
             Category books = new Category();
             books.setName("Books");
             books.setDescription("Books and educational materials");
-            categoryRepository.save(books);
             
             Category electronics = new Category();
             electronics.setName("Electronics");
             electronics.setDescription("Electronic devices and gadgets");
-            categoryRepository.save(electronics);
             
             Category clothing = new Category();
             clothing.setName("Clothing");
             clothing.setDescription("Fashion and apparel items");
-            categoryRepository.save(clothing);
             
+            categoryRepository.saveAll(List.of(books, electronics, clothing));
             System.out.println("Default categories created");
         }
     }
@@ -88,6 +94,7 @@ public class DataSeeder implements CommandLineRunner {
             Category books = categoryRepository.findByName("Books").orElse(null);
             Category electronics = categoryRepository.findByName("Electronics").orElse(null);
             Category clothing = categoryRepository.findByName("Clothing").orElse(null);
+            List<Product> products = new ArrayList<>();
             
             if (books != null) {
                 Product book1 = new Product();
@@ -96,7 +103,7 @@ public class DataSeeder implements CommandLineRunner {
                 book1.setPrice(new BigDecimal("29.99"));
                 book1.setStockQuantity(50);
                 book1.setCategory(books);
-                productRepository.save(book1);
+                products.add(book1);
                 
                 Product book2 = new Product();
                 book2.setName("Spring Boot in Action");
@@ -104,7 +111,7 @@ public class DataSeeder implements CommandLineRunner {
                 book2.setPrice(new BigDecimal("39.99"));
                 book2.setStockQuantity(30);
                 book2.setCategory(books);
-                productRepository.save(book2);
+                products.add(book2);
             }
             
             if (electronics != null) {
@@ -114,7 +121,7 @@ public class DataSeeder implements CommandLineRunner {
                 laptop.setPrice(new BigDecimal("1299.99"));
                 laptop.setStockQuantity(10);
                 laptop.setCategory(electronics);
-                productRepository.save(laptop);
+                products.add(laptop);
                 
                 Product phone = new Product();
                 phone.setName("Smartphone");
@@ -122,7 +129,7 @@ public class DataSeeder implements CommandLineRunner {
                 phone.setPrice(new BigDecimal("699.99"));
                 phone.setStockQuantity(25);
                 phone.setCategory(electronics);
-                productRepository.save(phone);
+                products.add(phone);
             }
             
             if (clothing != null) {
@@ -132,7 +139,7 @@ public class DataSeeder implements CommandLineRunner {
                 tshirt.setPrice(new BigDecimal("19.99"));
                 tshirt.setStockQuantity(100);
                 tshirt.setCategory(clothing);
-                productRepository.save(tshirt);
+                products.add(tshirt);
                 
                 Product jeans = new Product();
                 jeans.setName("Denim Jeans");
@@ -140,9 +147,10 @@ public class DataSeeder implements CommandLineRunner {
                 jeans.setPrice(new BigDecimal("49.99"));
                 jeans.setStockQuantity(75);
                 jeans.setCategory(clothing);
-                productRepository.save(jeans);
+                products.add(jeans);
             }
             
+            productRepository.saveAll(products);
             System.out.println("Sample products created");
         }
     }
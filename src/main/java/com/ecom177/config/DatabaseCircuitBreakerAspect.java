@@ -0,0 +1,127 @@
+package com.ecom177.config;
+
+import com.ecom177.exception.CircuitOpenException;
+import com.ecom177.util.CircuitBreaker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTimeoutException;
+import java.sql.SQLTransientConnectionException;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Circuit breaker around database access: transactional service methods and repository calls.
+ * Only the outermost guarded call on a thread is checked and recorded, before its transaction
+ * opens, so while the circuit is open reads and writes alike fail fast with a
+ * {@link CircuitOpenException} (a 503) instead of waiting out the connection timeout. Reads marked {@link com.ecom177.util.ServeStale} are then
+ * answered by {@link ServeStaleAspect}.
+ * <p>
+ * Connection failures and query timeouts count as failures; other exceptions mean the database
+ * answered and count as successes. Elapsed time is not judged: it would include lock waits and
+ * work done after commit, which say nothing about the database's health.
+ * <p>
+ * Metrics: {@code db.circuit.state} (0 closed, 1 half-open, 2 open),
+ * {@code db.circuit.transitions{to}} and {@code db.circuit.rejected}.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+public class DatabaseCircuitBreakerAspect {
+
+    private static final Logger log = LoggerFactory.getLogger(DatabaseCircuitBreakerAspect.class);
+
+    private final ThreadLocal<Boolean> guarded = new ThreadLocal<>();
+    private final CircuitBreaker circuitBreaker;
+    private final Counter rejected;
+
+    public DatabaseCircuitBreakerAspect(MeterRegistry meterRegistry,
+                                        @Value("${app.circuit-breaker.failure-threshold:5}") int failureThreshold,
+                                        @Value("${app.circuit-breaker.open-ms:10000}") long openMs,
+                                        @Value("${app.circuit-breaker.half-open-probes:3}") int halfOpenProbes) {
+        Map<CircuitBreaker.State, Counter> transitions = new EnumMap<>(CircuitBreaker.State.class);
+        for (CircuitBreaker.State state : CircuitBreaker.State.values()) {
+            transitions.put(state, Counter.builder("db.circuit.transitions")
+                    .tag("to", state.name().toLowerCase(Locale.ROOT)).register(meterRegistry));
+        }
+        this.circuitBreaker = new CircuitBreaker(failureThreshold, openMs, halfOpenProbes, (from, to) -> {
+            transitions.get(to).increment();
+            if (to == CircuitBreaker.State.OPEN) {
+                log.warn("Database circuit {} -> OPEN, failing database calls fast for {} ms", from, openMs);
+            } else {
+                log.info("Database circuit {} -> {}", from, to);
+            }
+        });
+        this.rejected = Counter.builder("db.circuit.rejected").register(meterRegistry);
+        Gauge.builder("db.circuit.state", circuitBreaker, breaker -> breaker.getState().ordinal())
+                .register(meterRegistry);
+    }
+
+    @Around("(execution(public * com.ecom177.service..*(..)) && "
+            + "(@annotation(org.springframework.transaction.annotation.Transactional) "
+            + "|| @within(org.springframework.transaction.annotation.Transactional))) "
+            + "|| this(org.springframework.data.repository.Repository)")
+    public Object guard(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (guarded.get() != null) {
+            return joinPoint.proceed();
+        }
+        CircuitBreaker.Permit permit = circuitBreaker.tryAcquire();
+        if (permit == null) {
+            rejected.increment();
+            long retryAfterSeconds = Math.max(1, TimeUnit.MILLISECONDS.toSeconds(circuitBreaker.remainingOpenMillis() + 999));
+            throw new CircuitOpenException("The database is unavailable, please retry shortly", retryAfterSeconds);
+        }
+        guarded.set(Boolean.TRUE);
+        boolean failed = false;
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            failed = isDatabaseFailure(e);
+            throw e;
+        } finally {
+            guarded.remove();
+            if (failed) {
+                circuitBreaker.onFailure(permit);
+            } else {
+                circuitBreaker.onSuccess(permit);
+            }
+        }
+    }
+
+    /** Whether {@code e} means the database could not be reached or did not answer in time. */
+    public static boolean isDatabaseFailure(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof DataAccessResourceFailureException
+                    || cause instanceof QueryTimeoutException
+                    || cause instanceof TransientDataAccessResourceException
+                    || cause instanceof RecoverableDataAccessException
+                    || cause instanceof CannotCreateTransactionException
+                    || cause instanceof SQLTransientConnectionException
+                    || cause instanceof SQLNonTransientConnectionException
+                    || cause instanceof SQLRecoverableException
+                    || cause instanceof SQLTimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,95 @@
+package com.ecom177.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.id.enhanced.DatabaseStructure;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Refuses to start while an entity's id sequence lags the ids already in its table.
+ * <p>
+ * Ids come from pooled sequences (changelog 007), which are advanced past the rows that identity
+ * columns issued before them. A database where that changelog did not run, such as one whose
+ * schema Hibernate updated and created the sequences at 1, would hand out ids that already
+ * exist, and the first insert would fail with a duplicate key. Each sequence is therefore
+ * checked once before the server accepts requests. Hibernate's pooled optimizer issues the
+ * {@code incrementSize} ids up to the value it fetches, so a sequence is safe when
+ * {@code nextval - incrementSize >= max(id)}. This uses up one block of ids per sequence on
+ * every start.
+ * <p>
+ * With {@code app.id-sequences.repair=true}, lagging sequences are restarted past
+ * {@code max(id)} instead of failing.
+ */
+@Component
+@ConditionalOnProperty(name = "app.id-sequences.check", havingValue = "true", matchIfMissing = true)
+public class IdSequenceCheck implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(IdSequenceCheck.class);
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean repair;
+
+    public IdSequenceCheck(EntityManagerFactory entityManagerFactory, DataSource dataSource,
+                           @Value("${app.id-sequences.repair:false}") boolean repair) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.repair = repair;
+    }
+
+    // Runs after every singleton exists but before the web server starts taking requests
+    @Override
+    public void afterSingletonsInstantiated() {
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        Dialect dialect = sessionFactory.getJdbcServices().getDialect();
+        List<String> lagging = new ArrayList<>();
+        sessionFactory.getMappingMetamodel().forEachEntityDescriptor(persister -> {
+            if (persister.getGenerator() instanceof SequenceStyleGenerator generator
+                    && persister instanceof AbstractEntityPersister entityPersister) {
+                DatabaseStructure structure = generator.getDatabaseStructure();
+                String sequence = structure.getPhysicalName().getObjectName().render(dialect);
+                String problem = check(dialect, sequence, structure.getIncrementSize(),
+                        entityPersister.getTableName(), entityPersister.getIdentifierColumnNames()[0]);
+                if (problem != null) {
+                    lagging.add(problem);
+                }
+            }
+        });
+        if (!lagging.isEmpty()) {
+            throw new IllegalStateException("Id sequences lag their tables and would issue existing ids: "
+                    + String.join("; ", lagging)
+                    + ". Run changelog 007-2 (setval past max(id)) or start once with app.id-sequences.repair=true");
+        }
+    }
+
+    private String check(Dialect dialect, String sequence, int incrementSize, String table, String idColumn) {
+        Long maxId = jdbcTemplate.queryForObject("SELECT MAX(" + idColumn + ") FROM " + table, Long.class);
+        if (maxId == null) {
+            return null;
+        }
+        long next = jdbcTemplate.queryForObject(dialect.getSequenceSupport().getSequenceNextValString(sequence), Long.class);
+        if (next - incrementSize >= maxId) {
+            return null;
+        }
+        if (repair) {
+            long restart = maxId + incrementSize;
+            jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + restart);
+            log.warn("Restarted sequence {} at {}: it was at {} while {} has ids up to {}", sequence, restart, next, table, maxId);
+            return null;
+        }
+        return sequence + " is at " + next + " but " + table + " has ids up to " + maxId;
+    }
+}
@@ -0,0 +1,156 @@
+package com.ecom177.config;
+
+import com.ecom177.dto.ErrorResponse;
+import com.ecom177.util.RateLimitStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-route rate limiting, applied after {@link JwtAuthenticationFilter} so authenticated callers
+ * are limited per principal and anonymous callers per client IP.
+ * <p>
+ * Rules come from {@code app.rate-limit.rules} as a comma-separated list of
+ * {@code [METHOD ]pattern:capacity:refillPerSecond}; the first matching rule applies and
+ * requests matching no rule pass straight through.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimitStore store;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final List<Rule> rules;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    public RateLimitFilter(RateLimitStore store, ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                           @Value("${app.rate-limit.enabled:true}") boolean enabled,
+                           @Value("${app.rate-limit.rules:}") String rules) {
+        this.store = store;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.rules = parseRules(rules, meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || rules.isEmpty();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        Rule rule = match(request);
+        if (rule != null) {
+            long waitNanos = store.tryAcquire(rule.id + '|' + clientKey(request), rule.emissionIntervalNanos, rule.capacity);
+            if (waitNanos > 0) {
+                rule.rejected.increment();
+                reject(response, waitNanos);
+                return;
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private Rule match(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (Rule rule : rules) {
+            if ((rule.method == null || rule.method.equalsIgnoreCase(request.getMethod()))
+                    && pathMatcher.match(rule.pattern, path)) {
+                return rule;
+            }
+        }
+        return null;
+    }
+
+    private static String clientKey(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken)) {
+            if (authentication.getPrincipal() instanceof AuthenticatedUser user) {
+                return "u:" + user.getId();
+            }
+            return "n:" + authentication.getName();
+        }
+        // Behind a proxy this is the forwarded client address (server.forward-headers-strategy)
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private void reject(HttpServletResponse response, long waitNanos) throws IOException {
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+        response.setStatus(429);
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), new ErrorResponse("Too many requests, please retry later"));
+    }
+
+    private static List<Rule> parseRules(String spec, MeterRegistry meterRegistry) {
+        List<Rule> parsed = new ArrayList<>();
+        for (String raw : spec.split(",")) {
+            String entry = raw.trim();
+            if (entry.isEmpty()) {
+                continue;
+            }
+            String method = null;
+            int space = entry.indexOf(' ');
+            if (space > 0) {
+                method = entry.substring(0, space);
+                entry = entry.substring(space + 1).trim();
+            }
+            String[] parts = entry.split(":");
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Invalid rate limit rule '" + raw.trim()
+                        + "', expected [METHOD ]pattern:capacity:refillPerSecond");
+            }
+            int capacity = Integer.parseInt(parts[1].trim());
+            double refillPerSecond = Double.parseDouble(parts[2].trim());
+            if (capacity < 1 || refillPerSecond <= 0) {
+                throw new IllegalArgumentException("Invalid rate limit rule '" + raw.trim()
+                        + "', capacity and refill rate must be positive");
+            }
+            String pattern = parts[0].trim();
+            Counter rejected = Counter.builder("http.rate_limit.rejected")
+                    .tag("rule", (method != null ? method + " " : "") + pattern)
+                    .register(meterRegistry);
+            parsed.add(new Rule(parsed.size(), method, pattern, capacity,
+                    (long) (TimeUnit.SECONDS.toNanos(1) / refillPerSecond), rejected));
+        }
+        return List.copyOf(parsed);
+    }
+
+    private static final class Rule {
+        private final int id;
+        private final String method;
+        private final String pattern;
+        private final int capacity;
+        private final long emissionIntervalNanos;
+        private final Counter rejected;
+
+        Rule(int id, String method, String pattern, int capacity, long emissionIntervalNanos, Counter rejected) {
+            this.id = id;
+            this.method = method;
+            this.pattern = pattern;
+            this.capacity = capacity;
+            this.emissionIntervalNanos = emissionIntervalNanos;
+            this.rejected = rejected;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.ecom177.config;
+
+import com.ecom177.controller.ReactiveCatalogHandler;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.ServletRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.server.reactive.HttpHandler;
+import org.springframework.http.server.reactive.ServletHttpHandlerAdapter;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+/**
+ * Mounts the reactive catalog as a second servlet under {@code /reactive/*}, next to the
+ * Spring MVC dispatcher. Requests still pass through the Spring Security filter chain, but
+ * once inside they are handled on a few event-loop threads using Servlet async I/O, so slow
+ * or numerous clients do not hold a thread each.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.reactive-catalog.enabled", havingValue = "true")
+public class ReactiveCatalogConfig {
+
+    @Bean
+    public ServletRegistrationBean<ServletHttpHandlerAdapter> reactiveCatalogServlet(
+            ReactiveCatalogHandler handler, ObjectMapper objectMapper) {
+        // Share the MVC ObjectMapper so both stacks serialize the DTOs identically
+        HandlerStrategies strategies = HandlerStrategies.builder()
+                .codecs(codecs -> {
+                    codecs.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(objectMapper));
+                    codecs.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(objectMapper));
+                })
+                .build();
+        HttpHandler httpHandler = RouterFunctions.toHttpHandler(routes(handler), strategies);
+
+        ServletRegistrationBean<ServletHttpHandlerAdapter> registration =
+                new ServletRegistrationBean<>(new ServletHttpHandlerAdapter(httpHandler), "/reactive/*");
+        registration.setName("reactiveCatalog");
+        registration.setAsyncSupported(true);
+        registration.setLoadOnStartup(1);
+        return registration;
+    }
+
+    private static RouterFunction<ServerResponse> routes(ReactiveCatalogHandler handler) {
+        return RouterFunctions.route()
+                .GET("/products/search", handler::searchProducts)
+                .GET("/products/{id:\\d+}", handler::getProductById)
+                .GET("/products", handler::getAllProducts)
+                .GET("/categories/{id:\\d+}", handler::getCategoryById)
+                .GET("/categories", handler::getAllCategories)
+                .build();
+    }
+}
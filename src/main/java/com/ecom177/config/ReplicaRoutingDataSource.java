@@ -0,0 +1,250 @@
+package com.ecom177.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Routes connections for {@code @Transactional(readOnly = true)} work to healthy read replicas
+ * round-robin and everything else to the primary. It must sit behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}. The transaction's
+ * read-only flag is only published after the transaction manager asks for a connection, so the
+ * physical connection has to be fetched lazily, on the first statement.
+ * <p>
+ * A user whose own write transaction ran within the last {@code stickinessMs} is kept on the
+ * primary, so replication lag cannot hide their write (for example an order followed by
+ * "my orders"). That memory is per instance, so a write also answers with
+ * {@code X-Primary-Until: <epoch ms>}; a client that echoes the header (the frontend does) stays
+ * on the primary on whichever node serves its next requests. An echoed value is only honoured
+ * up to {@code stickinessMs} ahead, so it can do no more than what a real write would.
+ * Replicas that fail a connection attempt or the periodic validity check are
+ * skipped until they pass again. With no healthy replica, reads fall back to the primary.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    public static final String STICKY_HEADER = "X-Primary-Until";
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final long stickinessMs;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final ConcurrentMap<String, Long> stickyUntil = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService healthChecker;
+
+    private final Counter primaryConnections;
+    private final Counter replicaConnections;
+    private final Counter failovers;
+
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas, long stickinessMs,
+                                    long healthCheckIntervalMs, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replicas = replicas.stream().map(Replica::new).toList();
+        this.stickinessMs = stickinessMs;
+
+        this.primaryConnections = Counter.builder("db.routing.connections")
+                .tag("target", "primary").register(meterRegistry);
+        this.replicaConnections = Counter.builder("db.routing.connections")
+                .tag("target", "replica").register(meterRegistry);
+        this.failovers = Counter.builder("db.routing.failovers").register(meterRegistry);
+        Gauge.builder("db.routing.replicas.healthy", this, ReplicaRoutingDataSource::healthyReplicas)
+                .register(meterRegistry);
+
+        this.healthChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-health");
+            thread.setDaemon(true);
+            return thread;
+        });
+        healthChecker.scheduleWithFixedDelay(this::checkReplicas,
+                healthCheckIntervalMs, healthCheckIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        String user = currentUser();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                long until = System.currentTimeMillis() + stickinessMs;
+                if (user != null) {
+                    stickyUntil.put(user, until);
+                }
+                publishStickiness(until);
+            }
+            return primaryConnection();
+        }
+        if (isSticky(user)) {
+            return primaryConnection();
+        }
+
+        for (int attempt = 0; attempt < replicas.size(); attempt++) {
+            Replica replica = replicas.get(Math.floorMod(nextReplica.getAndIncrement(), replicas.size()));
+            if (!replica.healthy) {
+                continue;
+            }
+            try {
+                Connection connection = replica.dataSource.getConnection();
+                replicaConnections.increment();
+                return connection;
+            } catch (SQLException e) {
+                replica.markDown(e);
+                failovers.increment();
+            }
+        }
+        return primaryConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new UnsupportedOperationException("Credentials are configured per pool");
+    }
+
+    /** Whether reads for the current user or request go to the primary after a recent write. */
+    public boolean isCurrentRequestSticky() {
+        return isSticky(currentUser());
+    }
+
+    public int healthyReplicas() {
+        return (int) replicas.stream().filter(replica -> replica.healthy).count();
+    }
+
+    @Override
+    public void close() throws IOException {
+        healthChecker.shutdownNow();
+        closeQuietly(primary);
+        replicas.forEach(replica -> closeQuietly(replica.dataSource));
+    }
+
+    private Connection primaryConnection() throws SQLException {
+        primaryConnections.increment();
+        return primary.getConnection();
+    }
+
+    private boolean isSticky(String user) {
+        return (user != null && userIsSticky(user)) || requestIsSticky();
+    }
+
+    private boolean userIsSticky(String user) {
+        Long until = stickyUntil.get(user);
+        if (until == null) {
+            return false;
+        }
+        if (until > System.currentTimeMillis()) {
+            return true;
+        }
+        stickyUntil.remove(user, until);
+        return false;
+    }
+
+    private void publishStickiness(long until) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes servletAttributes) {
+            HttpServletResponse response = servletAttributes.getResponse();
+            if (response != null && !response.isCommitted()) {
+                response.setHeader(STICKY_HEADER, String.valueOf(until));
+            }
+        }
+    }
+
+    private boolean requestIsSticky() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes servletAttributes)) {
+            return false;
+        }
+        HttpServletRequest request = servletAttributes.getRequest();
+        String header = request.getHeader(STICKY_HEADER);
+        if (header == null) {
+            return false;
+        }
+        try {
+            long until = Long.parseLong(header.trim());
+            long now = System.currentTimeMillis();
+            return until > now && until <= now + stickinessMs;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private void checkReplicas() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection()) {
+                if (connection.isValid(2)) {
+                    replica.markUp();
+                } else {
+                    replica.markDown(null);
+                }
+            } catch (SQLException | RuntimeException e) {
+                replica.markDown(e);
+            }
+        }
+        long now = System.currentTimeMillis();
+        stickyUntil.values().removeIf(until -> until <= now);
+    }
+
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+
+    private static void closeQuietly(DataSource dataSource) {
+        if (dataSource instanceof AutoCloseable closeable) {
+            try {
+                closeable.close();
+            } catch (Exception e) {
+                log.warn("Failed to close data source", e);
+            }
+        }
+    }
+
+    private static final class Replica {
+        private final DataSource dataSource;
+        private volatile boolean healthy = true;
+
+        Replica(DataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        void markDown(Exception cause) {
+            if (healthy) {
+                healthy = false;
+                log.warn("Read replica marked unhealthy, routing its reads elsewhere: {}",
+                        cause != null ? cause.getMessage() : "connection not valid");
+            }
+        }
+
+        void markUp() {
+            if (!healthy) {
+                healthy = true;
+                log.info("Read replica healthy again");
+            }
+        }
+    }
+}
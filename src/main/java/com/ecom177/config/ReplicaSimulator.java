@@ -0,0 +1,218 @@
+package com.ecom177.config;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stands in for streaming replication when running locally with the {@code replica} profile.
+ * Each replica in {@code app.datasource.replica-urls} is its own in-memory H2 database, so the
+ * routing can be watched doing what it does against real replicas:
+ * <ul>
+ *   <li>Every {@code lag-ms} the replicas are overwritten with a copy of the primary, in one
+ *   transaction, so they trail it by up to that long.</li>
+ *   <li>Every {@code outage-interval-ms} replica {@code outage-replica} is shut down for
+ *   {@code outage-ms} and then restored, so its reads fail over to the other replica.</li>
+ * </ul>
+ * Replica URLs must be H2 in-memory URLs with {@code IFEXISTS=TRUE}, so a replica that is down
+ * or not populated yet refuses connections instead of coming up empty. Never enable in prod.
+ */
+@Component
+@ConditionalOnProperty(name = "app.datasource.simulation.enabled", havingValue = "true")
+public class ReplicaSimulator {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaSimulator.class);
+
+    private final String primaryUrl;
+    private final String username;
+    private final String password;
+    private final List<SimulatedReplica> replicas = new ArrayList<>();
+    private final long lagMs;
+    private final int outageReplica;
+    private final long outageMs;
+    private final long outageIntervalMs;
+    private final ScheduledExecutorService executor;
+
+    public ReplicaSimulator(@Value("${spring.datasource.url}") String primaryUrl,
+                            @Value("${spring.datasource.username:}") String username,
+                            @Value("${spring.datasource.password:}") String password,
+                            @Value("${app.datasource.replica-urls}") List<String> replicaUrls,
+                            @Value("${app.datasource.simulation.lag-ms:3000}") long lagMs,
+                            @Value("${app.datasource.simulation.outage-replica:0}") int outageReplica,
+                            @Value("${app.datasource.simulation.outage-ms:15000}") long outageMs,
+                            @Value("${app.datasource.simulation.outage-interval-ms:60000}") long outageIntervalMs) {
+        this.primaryUrl = primaryUrl;
+        this.username = username;
+        this.password = password;
+        for (String url : replicaUrls) {
+            String trimmed = url.trim();
+            if (!trimmed.startsWith("jdbc:h2:mem:") || !trimmed.toUpperCase().contains("IFEXISTS=TRUE")) {
+                throw new IllegalStateException("Simulated replicas must be H2 in-memory URLs with IFEXISTS=TRUE: " + trimmed);
+            }
+            String name = trimmed.substring("jdbc:h2:mem:".length()).split(";")[0];
+            replicas.add(new SimulatedReplica(name, "jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1"));
+        }
+        this.lagMs = lagMs;
+        this.outageReplica = outageReplica;
+        this.outageMs = outageMs;
+        this.outageIntervalMs = outageIntervalMs;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-simulator");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // The schema exists once the context is refreshed; copying right away means the startup
+    // listeners that read (index rebuilds) already find populated replicas
+    @EventListener(ContextRefreshedEvent.class)
+    public void start() {
+        replicate();
+        executor.scheduleWithFixedDelay(this::replicate, lagMs, lagMs, TimeUnit.MILLISECONDS);
+        if (outageReplica >= 1 && outageReplica <= replicas.size() && outageIntervalMs > 0) {
+            SimulatedReplica replica = replicas.get(outageReplica - 1);
+            executor.scheduleWithFixedDelay(() -> shutDown(replica), outageIntervalMs, outageIntervalMs, TimeUnit.MILLISECONDS);
+        }
+        log.warn("Simulating {} read replicas, lagging the primary by up to {} ms", replicas.size(), lagMs);
+    }
+
+    private void replicate() {
+        long now = System.currentTimeMillis();
+        for (SimulatedReplica replica : replicas) {
+            if (replica.downUntil > now) {
+                continue;
+            }
+            try {
+                copyPrimaryTo(replica);
+                if (replica.downUntil != 0) {
+                    replica.downUntil = 0;
+                    log.warn("Simulated replica {} is back", replica.name);
+                }
+            } catch (SQLException | RuntimeException e) {
+                log.warn("Copying the primary to simulated replica {} failed", replica.name, e);
+            }
+        }
+    }
+
+    private void shutDown(SimulatedReplica replica) {
+        try (Connection connection = DriverManager.getConnection(replica.url, username, password);
+             Statement statement = connection.createStatement()) {
+            statement.execute("SHUTDOWN");
+            replica.populated = false;
+            replica.downUntil = System.currentTimeMillis() + outageMs;
+            log.warn("Simulated replica {} is down for {} ms", replica.name, outageMs);
+        } catch (SQLException e) {
+            log.warn("Shutting down simulated replica {} failed", replica.name, e);
+        }
+    }
+
+    private void copyPrimaryTo(SimulatedReplica replica) throws SQLException {
+        try (Connection source = DriverManager.getConnection(primaryUrl, username, password);
+             Connection target = DriverManager.getConnection(replica.url, username, password)) {
+            if (!replica.populated) {
+                createSchema(source, target);
+            }
+            List<String> tables = new ArrayList<>();
+            try (ResultSet rs = source.getMetaData().getTables(null, "PUBLIC", "%", new String[] {"TABLE", "BASE TABLE"})) {
+                while (rs.next()) {
+                    tables.add(rs.getString("TABLE_NAME"));
+                }
+            }
+            // Readers keep seeing the previous copy until this commits
+            target.setAutoCommit(false);
+            try {
+                for (String table : tables) {
+                    copyTable(source, target, table);
+                }
+                target.commit();
+            } catch (SQLException | RuntimeException e) {
+                target.rollback();
+                throw e;
+            }
+            replica.populated = true;
+        }
+    }
+
+    private static void createSchema(Connection source, Connection target) throws SQLException {
+        try (Statement script = source.createStatement();
+             ResultSet statements = script.executeQuery("SCRIPT NODATA NOPASSWORDS NOSETTINGS");
+             Statement ddl = target.createStatement()) {
+            ddl.execute("DROP ALL OBJECTS");
+            while (statements.next()) {
+                String sql = statements.getString(1);
+                if (!sql.startsWith("CREATE USER")) {
+                    ddl.execute(sql);
+                }
+            }
+            // Tables are replaced one by one, so parents and children are briefly out of step
+            ddl.execute("SET REFERENTIAL_INTEGRITY FALSE");
+        }
+    }
+
+    private static void copyTable(Connection source, Connection target, String table) throws SQLException {
+        String quoted = "\"" + table.replace("\"", "\"\"") + "\"";
+        try (Statement delete = target.createStatement()) {
+            delete.executeUpdate("DELETE FROM " + quoted);
+        }
+        try (Statement select = source.createStatement();
+             ResultSet rows = select.executeQuery("SELECT * FROM " + quoted)) {
+            ResultSetMetaData metaData = rows.getMetaData();
+            int columns = metaData.getColumnCount();
+            String placeholders = String.join(",", Collections.nCopies(columns, "?"));
+            try (PreparedStatement insert = target.prepareStatement("INSERT INTO " + quoted + " VALUES (" + placeholders + ")")) {
+                int batched = 0;
+                while (rows.next()) {
+                    for (int i = 1; i <= columns; i++) {
+                        switch (metaData.getColumnType(i)) {
+                            case Types.CLOB, Types.NCLOB -> insert.setString(i, rows.getString(i));
+                            case Types.BLOB -> insert.setBytes(i, rows.getBytes(i));
+                            default -> insert.setObject(i, rows.getObject(i));
+                        }
+                    }
+                    insert.addBatch();
+                    if (++batched % 500 == 0) {
+                        insert.executeBatch();
+                    }
+                }
+                insert.executeBatch();
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static final class SimulatedReplica {
+        private final String name;
+        private final String url;
+        private volatile boolean populated;
+        private volatile long downUntil;
+
+        SimulatedReplica(String name, String url) {
+            this.name = name;
+            this.url = url;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.ecom177.config;
+
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.ExpiryPolicyBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.jsr107.Eh107Configuration;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.time.Duration;
+
+/**
+ * Builds the Ehcache regions behind Hibernate's second-level and query caches from
+ * {@code app.l2-cache.*}, so each region's size and TTL can be tuned per environment.
+ * Hibernate is set to fail on any region that is not created here.
+ */
+@Configuration
+public class SecondLevelCacheConfig {
+
+    public static final String PRODUCT_REGION = "product";
+    public static final String CATEGORY_REGION = "category";
+
+    private static final String QUERY_RESULTS_REGION = "default-query-results-region";
+    private static final String UPDATE_TIMESTAMPS_REGION = "default-update-timestamps-region";
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(
+            @Value("${app.l2-cache.product.max-entries:10000}") long productEntries,
+            @Value("${app.l2-cache.product.ttl-seconds:600}") long productTtl,
+            @Value("${app.l2-cache.category.max-entries:1000}") long categoryEntries,
+            @Value("${app.l2-cache.category.ttl-seconds:3600}") long categoryTtl,
+            @Value("${app.l2-cache.query.max-entries:1000}") long queryEntries,
+            @Value("${app.l2-cache.query.ttl-seconds:600}") long queryTtl) {
+        CacheManager cacheManager = Caching.getCachingProvider(EhcacheCachingProvider.class.getName())
+                .getCacheManager();
+        createRegion(cacheManager, PRODUCT_REGION, productEntries, productTtl);
+        createRegion(cacheManager, CATEGORY_REGION, categoryEntries, categoryTtl);
+        createRegion(cacheManager, QUERY_RESULTS_REGION, queryEntries, queryTtl);
+        // Query results are only valid while these timestamps are present, so never expire them
+        createRegion(cacheManager, UPDATE_TIMESTAMPS_REGION, 10_000, 0);
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> {
+            properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        };
+    }
+
+    private static void createRegion(CacheManager cacheManager, String name, long maxEntries, long ttlSeconds) {
+        CacheConfigurationBuilder<Object, Object> builder = CacheConfigurationBuilder
+                .newCacheConfigurationBuilder(Object.class, Object.class, ResourcePoolsBuilder.heap(maxEntries))
+                .withExpiry(ttlSeconds > 0
+                        ? ExpiryPolicyBuilder.timeToLiveExpiration(Duration.ofSeconds(ttlSeconds))
+                        : ExpiryPolicyBuilder.noExpiration());
+        cacheManager.createCache(name, Eh107Configuration.fromEhcacheCacheConfiguration(builder));
+    }
+}
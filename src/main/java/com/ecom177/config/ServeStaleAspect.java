@@ -0,0 +1,123 @@
+package com.ecom177.config;
+
+import com.ecom177.exception.CircuitOpenException;
+import com.ecom177.util.ServeStale;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletResponse;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Applies {@link ServeStale}. Every successful call stores its result as the last known good
+ * snapshot for its arguments. When the call fails because the database is unreachable or the
+ * circuit is open, the snapshot is returned instead and the response gets
+ * {@code X-Catalog-Stale: <age in seconds>} and {@code Cache-Control: no-store}; with no
+ * snapshot the 503 stands. Other 503s, such as a coalesced caller giving up on the shared call,
+ * say nothing about the database and are passed through.
+ * <p>
+ * Runs outermost, ahead of {@link CoalescingAspect}, so each waiting caller sets its own header.
+ * Snapshots are kept for the {@code app.circuit-breaker.stale-entries} most recently used
+ * argument sets and are replaced on every success, so they are never older than the outage.
+ * <p>
+ * Metrics: {@code catalog.stale.served{method}} and {@code catalog.stale.entries}.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ServeStaleAspect {
+
+    public static final String STALE_HEADER = "X-Catalog-Stale";
+
+    private final Map<Key, Snapshot> snapshots;
+    private final MeterRegistry meterRegistry;
+    private final Map<Method, Counter> served = new ConcurrentHashMap<>();
+
+    public ServeStaleAspect(MeterRegistry meterRegistry,
+                            @Value("${app.circuit-breaker.stale-entries:2000}") int maxEntries) {
+        this.meterRegistry = meterRegistry;
+        this.snapshots = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Snapshot> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        Gauge.builder("catalog.stale.entries", this, aspect -> aspect.size()).register(meterRegistry);
+    }
+
+    @Around("@annotation(com.ecom177.util.ServeStale)")
+    public Object serveStale(ProceedingJoinPoint joinPoint) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        Key key = new Key(method, Arrays.asList(joinPoint.getArgs()));
+        Object result;
+        try {
+            result = joinPoint.proceed();
+        } catch (RuntimeException e) {
+            if (!(e instanceof CircuitOpenException) && !DatabaseCircuitBreakerAspect.isDatabaseFailure(e)) {
+                throw e;
+            }
+            Snapshot snapshot;
+            synchronized (snapshots) {
+                snapshot = snapshots.get(key);
+            }
+            if (snapshot == null) {
+                throw e;
+            }
+            served.computeIfAbsent(method, this::createCounter).increment();
+            markStale(snapshot);
+            return snapshot.value;
+        }
+        synchronized (snapshots) {
+            snapshots.put(key, new Snapshot(result, System.currentTimeMillis()));
+        }
+        return result;
+    }
+
+    private static void markStale(Snapshot snapshot) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes servletAttributes) {
+            HttpServletResponse response = servletAttributes.getResponse();
+            if (response != null) {
+                long ageSeconds = Math.max(0, (System.currentTimeMillis() - snapshot.storedAt) / 1000);
+                response.setHeader(STALE_HEADER, String.valueOf(ageSeconds));
+                response.setHeader(HttpHeaders.CACHE_CONTROL, "no-store");
+            }
+        }
+    }
+
+    private int size() {
+        synchronized (snapshots) {
+            return snapshots.size();
+        }
+    }
+
+    private Counter createCounter(Method method) {
+        return Counter.builder("catalog.stale.served")
+                .tag("method", method.getDeclaringClass().getSimpleName() + "." + method.getName())
+                .register(meterRegistry);
+    }
+
+    private record Key(Method method, List<Object> args) {
+    }
+
+    private record Snapshot(Object value, long storedAt) {
+    }
+}
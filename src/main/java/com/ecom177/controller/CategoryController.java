@@ -2,6 +2,7 @@ package com.ecom177.controller;
 
 import com.ecom177.dto.CategoryRequest;
 import com.ecom177.dto.CategoryResponse;
+import com.ecom177.dto.CategoryTreeResponse;
 import com.ecom177.service.CategoryService;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
@@ -27,6 +28,11 @@ public class CategoryController {
         return ResponseEntity.ok(categories);
     }
     
+    @GetMapping("/tree")
+    public ResponseEntity<List<CategoryTreeResponse>> getCategoryTree() {
+        return ResponseEntity.ok(categoryService.getCategoryTree());
+    }
+    
     @GetMapping("/{id}")
     public ResponseEntity<CategoryResponse> getCategoryById(@PathVariable Long id) {
         CategoryResponse category = categoryService.getCategoryById(id);
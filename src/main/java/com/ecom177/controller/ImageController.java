@@ -0,0 +1,67 @@
+package com.ecom177.controller;
+
+import com.ecom177.dto.ImageUploadResponse;
+import com.ecom177.exception.BadRequestException;
+import com.ecom177.service.ImageDerivativeService;
+import com.ecom177.service.ImageService;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+
+@RestController
+@RequestMapping("/api/images")
+public class ImageController {
+    
+    private final ImageService imageService;
+    
+    public ImageController(ImageService imageService) {
+        this.imageService = imageService;
+    }
+    
+    // Raw body: streamed from the socket straight into storage
+    @PostMapping(consumes = {MediaType.APPLICATION_OCTET_STREAM_VALUE, "image/*"})
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ImageUploadResponse> uploadImage(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body) throws IOException {
+        ImageUploadResponse response = imageService.upload(body, contentType);
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+    
+    // Multipart form: the container spools the part to disk, then it is streamed into storage
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ImageUploadResponse> uploadImageForm(@RequestParam("file") MultipartFile file) throws IOException {
+        if (file.isEmpty()) {
+            throw new BadRequestException("Image file is empty");
+        }
+        try (InputStream content = file.getInputStream()) {
+            ImageUploadResponse response = imageService.upload(content, file.getContentType());
+            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        }
+    }
+    
+    // Until a resized variant exists the original stands in for it, cached only briefly
+    @GetMapping("/{imageId}")
+    public ResponseEntity<Resource> getImage(@PathVariable String imageId,
+                                             @RequestParam(defaultValue = "original") String size) {
+        ImageService.StoredImage image = imageService.load(imageId, ImageDerivativeService.Size.fromParameter(size));
+        CacheControl cacheControl = image.exactSize()
+                ? CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable()
+                : CacheControl.maxAge(Duration.ofMinutes(1)).cachePublic();
+        return ResponseEntity.ok()
+                .contentType(image.mediaType())
+                .cacheControl(cacheControl)
+                .body(image.resource());
+    }
+}
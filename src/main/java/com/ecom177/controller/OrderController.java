@@ -3,12 +3,26 @@ package com.ecom177.controller;
 import com.ecom177.dto.OrderRequest;
 import com.ecom177.dto.OrderResponse;
 import com.ecom177.entity.Order;
+import com.ecom177.service.OrderImportService;
 import com.ecom177.service.OrderService;
+import com.ecom177.util.FieldSelection;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 
 import java.util.List;
 
@@ -17,9 +31,13 @@ import java.util.List;
 public class OrderController {
     
     private final OrderService orderService;
+    private final OrderImportService orderImportService;
+    private final ObjectMapper objectMapper;
     
-    public OrderController(OrderService orderService) {
+    public OrderController(OrderService orderService, OrderImportService orderImportService, ObjectMapper objectMapper) {
         this.orderService = orderService;
+        this.orderImportService = orderImportService;
+        this.objectMapper = objectMapper;
     }
     
     @PostMapping
@@ -28,10 +46,32 @@ public class OrderController {
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
     
+    // One NDJSON order per line in; one NDJSON result per order out, written as each chunk commits
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> importOrders(InputStream body) {
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        StreamingResponseBody response = out -> {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+            orderImportService.importOrders(reader, username, result -> {
+                try {
+                    out.write(objectMapper.writeValueAsBytes(result));
+                    out.write('\n');
+                    // Hand each result to the client now rather than when the response buffer fills
+                    out.flush();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(response);
+    }
+    
     @GetMapping("/my-orders")
-    public ResponseEntity<List<OrderResponse>> getMyOrders() {
-        List<OrderResponse> orders = orderService.getUserOrders();
-        return ResponseEntity.ok(orders);
+    public ResponseEntity<MappingJacksonValue> getMyOrders(@RequestParam(required = false) String fields) {
+        FieldSelection selection = FieldSelection.parse(fields, OrderResponse.FIELDS);
+        List<OrderResponse> orders = orderService.getUserOrders(selection);
+        return ResponseEntity.ok(selection.apply(orders));
     }
     
     @GetMapping("/{id}")
@@ -58,9 +98,10 @@ public class OrderController {
     
     @GetMapping("/admin/all")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<OrderResponse>> getAllOrders() {
-        List<OrderResponse> orders = orderService.getAllOrders();
-        return ResponseEntity.ok(orders);
+    public ResponseEntity<MappingJacksonValue> getAllOrders(@RequestParam(required = false) String fields) {
+        FieldSelection selection = FieldSelection.parse(fields, OrderResponse.FIELDS);
+        List<OrderResponse> orders = orderService.getAllOrders(selection);
+        return ResponseEntity.ok(selection.apply(orders));
     }
     
     @GetMapping("/admin/pending")
@@ -1,13 +1,40 @@
 package com.ecom177.controller;
 
+import com.ecom177.dto.ProductImportResult;
 import com.ecom177.dto.ProductRequest;
 import com.ecom177.dto.ProductResponse;
+import com.ecom177.dto.SuggestionResponse;
+import com.ecom177.service.ImageDerivativeService;
+import com.ecom177.service.ImageService;
+import com.ecom177.service.ProductBulkService;
 import com.ecom177.service.ProductService;
+import com.ecom177.service.RelatedProductService;
+import com.ecom177.service.SuggestionService;
+import com.ecom177.service.TrendingService;
+import com.ecom177.util.FieldSelection;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 
 import java.util.List;
 
@@ -16,9 +43,19 @@ import java.util.List;
 public class ProductController {
     
     private final ProductService productService;
+    private final RelatedProductService relatedProductService;
+    private final SuggestionService suggestionService;
+    private final ProductBulkService productBulkService;
+    private final ObjectMapper objectMapper;
     
-    public ProductController(ProductService productService) {
+    public ProductController(ProductService productService, RelatedProductService relatedProductService,
+                             SuggestionService suggestionService, ProductBulkService productBulkService,
+                             ObjectMapper objectMapper) {
         this.productService = productService;
+        this.relatedProductService = relatedProductService;
+        this.suggestionService = suggestionService;
+        this.productBulkService = productBulkService;
+        this.objectMapper = objectMapper;
     }
     
     @PostMapping
@@ -28,10 +65,61 @@ public class ProductController {
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
     
+    // The body is parsed as it arrives. With Accept: application/x-ndjson a progress line is
+    // written after every committed batch; otherwise only the final summary is returned.
+    @PostMapping(value = "/import", consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE})
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> importProducts(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            InputStream body) {
+        MediaType requestType = MediaType.parseMediaType(contentType);
+        ProductBulkService.Format format = requestType.isCompatibleWith(MediaType.APPLICATION_NDJSON)
+                ? ProductBulkService.Format.NDJSON
+                : ProductBulkService.Format.CSV;
+        Charset charset = requestType.getCharset() != null ? requestType.getCharset() : StandardCharsets.UTF_8;
+        boolean streamProgress = accept != null && MediaType.parseMediaTypes(accept).stream()
+                .anyMatch(MediaType.APPLICATION_NDJSON::equalsTypeAndSubtype);
+        
+        StreamingResponseBody response = out -> {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(body, charset));
+            ProductImportResult summary = productBulkService.importProducts(reader, format, progress -> {
+                if (streamProgress) {
+                    writeLine(out, progress);
+                }
+            });
+            if (streamProgress) {
+                writeLine(out, summary);
+            } else {
+                objectMapper.writeValue(out, summary);
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(streamProgress ? MediaType.APPLICATION_NDJSON : MediaType.APPLICATION_JSON)
+                .body(response);
+    }
+    
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportProducts(
+            @RequestParam(defaultValue = "CSV") ProductBulkService.Format format) {
+        boolean csv = format == ProductBulkService.Format.CSV;
+        StreamingResponseBody response = out -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            productBulkService.exportProducts(writer, format);
+            writer.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(csv ? new MediaType("text", "csv", StandardCharsets.UTF_8) : MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=products." + (csv ? "csv" : "ndjson"))
+                .body(response);
+    }
+    
     @GetMapping
-    public ResponseEntity<List<ProductResponse>> getAllProducts() {
-        List<ProductResponse> products = productService.getAllProducts();
-        return ResponseEntity.ok(products);
+    public ResponseEntity<MappingJacksonValue> getAllProducts(@RequestParam(required = false) String fields) {
+        FieldSelection selection = FieldSelection.parse(fields, ProductResponse.FIELDS);
+        List<ProductResponse> products = productService.getAllProducts(selection);
+        return ResponseEntity.ok(selection.apply(products));
     }
     
     @GetMapping("/{id}")
@@ -40,6 +128,19 @@ public class ProductController {
         return ResponseEntity.ok(product);
     }
     
+    // The product's image can be replaced, so this only redirects (uncached) to the
+    // content-addressed image URL, which is the one served as immutable
+    @GetMapping("/{id}/image")
+    public ResponseEntity<Void> getProductImage(@PathVariable Long id,
+                                                @RequestParam(defaultValue = "original") String size) {
+        ImageDerivativeService.Size imageSize = ImageDerivativeService.Size.fromParameter(size);
+        String imageId = productService.getProductImageId(id);
+        return ResponseEntity.status(HttpStatus.FOUND)
+                .header(HttpHeaders.LOCATION, ImageService.imageUrl(imageId, imageSize))
+                .cacheControl(CacheControl.noCache())
+                .build();
+    }
+    
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<ProductResponse> updateProduct(@PathVariable Long id, @Valid @RequestBody ProductRequest request) {
@@ -61,4 +162,57 @@ public class ProductController {
         List<ProductResponse> products = productService.searchProducts(name, categoryIds);
         return ResponseEntity.ok(products);
     }
-}
\ No newline at end of file
+    
+    @GetMapping("/suggest")
+    public ResponseEntity<List<SuggestionResponse>> suggest(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit) {
+        List<SuggestionResponse> suggestions = suggestionService.suggest(q, Math.max(1, limit));
+        return ResponseEntity.ok(suggestions);
+    }
+    
+    @GetMapping("/trending")
+    public ResponseEntity<List<ProductResponse>> getTrendingProducts(
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(defaultValue = "TRENDING") TrendingService.Window window,
+            @RequestParam(defaultValue = "10") int limit) {
+        int boundedLimit = Math.max(1, Math.min(limit, 50));
+        List<ProductResponse> products = productService.getTrendingProducts(window, categoryId, boundedLimit);
+        return ResponseEntity.ok(products);
+    }
+    
+    @GetMapping("/{id}/related")
+    public ResponseEntity<List<ProductResponse>> getRelatedProducts(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "10") int limit) {
+        int boundedLimit = Math.max(1, Math.min(limit, 50));
+        List<ProductResponse> products = productService.getRelatedProducts(id, boundedLimit);
+        return ResponseEntity.ok(products);
+    }
+    
+    @PostMapping("/related/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Void> rebuildRelatedProducts() {
+        relatedProductService.rebuild();
+        return ResponseEntity.noContent().build();
+    }
+    
+    @GetMapping("/{id}/similar")
+    public ResponseEntity<List<ProductResponse>> getSimilarProducts(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "10") int limit) {
+        int boundedLimit = Math.max(1, Math.min(limit, 50));
+        List<ProductResponse> products = productService.getSimilarProducts(id, boundedLimit);
+        return ResponseEntity.ok(products);
+    }
+    
+    private void writeLine(OutputStream out, ProductImportResult result) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(result));
+            out.write('\n');
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.ecom177.controller;
+
+import com.ecom177.dto.CategoryResponse;
+import com.ecom177.dto.ErrorResponse;
+import com.ecom177.dto.ProductResponse;
+import com.ecom177.repository.ReactiveCatalogRepository;
+import com.ecom177.service.ProductSearchCache;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Handlers for the read-only reactive catalog mounted under {@code /reactive}. Lists are
+ * streamed as they come off the database: newline-delimited JSON when the client accepts
+ * {@code application/x-ndjson}, otherwise a JSON array written incrementally.
+ */
+@Component
+@ConditionalOnProperty(name = "app.reactive-catalog.enabled", havingValue = "true")
+public class ReactiveCatalogHandler {
+
+    private final ReactiveCatalogRepository catalogRepository;
+
+    public ReactiveCatalogHandler(ReactiveCatalogRepository catalogRepository) {
+        this.catalogRepository = catalogRepository;
+    }
+
+    public Mono<ServerResponse> getAllProducts(ServerRequest request) {
+        return stream(request, catalogRepository.findAllProducts(), ProductResponse.class);
+    }
+
+    public Mono<ServerResponse> getProductById(ServerRequest request) {
+        Long id = pathId(request);
+        return catalogRepository.findProductById(id)
+                .flatMap(product -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).bodyValue(product))
+                .switchIfEmpty(notFound("Product not found with id: " + id));
+    }
+
+    public Mono<ServerResponse> searchProducts(ServerRequest request) {
+        List<Long> categoryIds;
+        try {
+            categoryIds = request.queryParams().containsKey("categoryIds")
+                    ? request.queryParams().get("categoryIds").stream()
+                            .flatMap(value -> Arrays.stream(value.split(",")))
+                            .filter(value -> !value.isBlank())
+                            .map(value -> Long.valueOf(value.trim()))
+                            .toList()
+                    : null;
+        } catch (NumberFormatException e) {
+            return ServerResponse.badRequest()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(new ErrorResponse("Invalid categoryIds: " + e.getMessage()));
+        }
+        ProductSearchCache.Key query = ProductSearchCache.normalize(request.queryParam("name").orElse(null), categoryIds);
+        return stream(request, catalogRepository.searchProducts(query.getName(), query.getCategoryIds()), ProductResponse.class);
+    }
+
+    public Mono<ServerResponse> getAllCategories(ServerRequest request) {
+        return stream(request, catalogRepository.findAllCategories(), CategoryResponse.class);
+    }
+
+    public Mono<ServerResponse> getCategoryById(ServerRequest request) {
+        Long id = pathId(request);
+        return catalogRepository.findCategoryById(id)
+                .flatMap(category -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).bodyValue(category))
+                .switchIfEmpty(notFound("Category not found with id: " + id));
+    }
+
+    private static <T> Mono<ServerResponse> stream(ServerRequest request, Flux<T> body, Class<T> type) {
+        boolean ndjson = request.headers().accept().stream()
+                .anyMatch(MediaType.APPLICATION_NDJSON::equalsTypeAndSubtype);
+        return ServerResponse.ok()
+                .contentType(ndjson ? MediaType.APPLICATION_NDJSON : MediaType.APPLICATION_JSON)
+                .body(body, type);
+    }
+
+    private static Long pathId(ServerRequest request) {
+        return Long.valueOf(request.pathVariable("id"));
+    }
+
+    private static Mono<ServerResponse> notFound(String message) {
+        return Mono.defer(() -> ServerResponse.status(HttpStatus.NOT_FOUND)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new ErrorResponse(message)));
+    }
+}
@@ -2,6 +2,7 @@ package com.ecom177.dto;
 
 public class AuthResponse {
     private String token;
+    private String refreshToken;
     private String username;
     private String email;
     private String firstName;
@@ -10,8 +11,9 @@ public class AuthResponse {
     
     public AuthResponse() {}
     
-    public AuthResponse(String token, String username, String email, String firstName, String lastName, String role) {
+    public AuthResponse(String token, String refreshToken, String username, String email, String firstName, String lastName, String role) {
         this.token = token;
+        this.refreshToken = refreshToken;
         this.username = username;
         this.email = email;
         this.firstName = firstName;
@@ -23,6 +25,9 @@ public class AuthResponse {
     public String getToken() { return token; }
     public void setToken(String token) { this.token = token; }
     
+    public String getRefreshToken() { return refreshToken; }
+    public void setRefreshToken(String refreshToken) { this.refreshToken = refreshToken; }
+    
     public String getUsername() { return username; }
     public void setUsername(String username) { this.username = username; }
     
@@ -12,6 +12,9 @@ public class CategoryRequest {
     @Size(max = 500, message = "Description must not exceed 500 characters")
     private String description;
     
+    // Optional; null makes it a top-level category
+    private Long parentId;
+    
     public CategoryRequest() {}
     
     public CategoryRequest(String name, String description) {
@@ -24,4 +27,7 @@ public class CategoryRequest {
     
     public String getDescription() { return description; }
     public void setDescription(String description) { this.description = description; }
+    
+    public Long getParentId() { return parentId; }
+    public void setParentId(Long parentId) { this.parentId = parentId; }
 }
\ No newline at end of file
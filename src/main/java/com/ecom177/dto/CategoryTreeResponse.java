@@ -0,0 +1,42 @@
+package com.ecom177.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A category with its subcategories. {@code productCount} counts products assigned directly to
+ * this category; {@code totalProductCount} also includes every subcategory.
+ */
+public class CategoryTreeResponse {
+    private Long id;
+    private String name;
+    private long productCount;
+    private long totalProductCount;
+    private List<CategoryTreeResponse> children = new ArrayList<>();
+    
+    public CategoryTreeResponse() {}
+    
+    public CategoryTreeResponse(Long id, String name, long productCount, long totalProductCount,
+                                List<CategoryTreeResponse> children) {
+        this.id = id;
+        this.name = name;
+        this.productCount = productCount;
+        this.totalProductCount = totalProductCount;
+        this.children = children;
+    }
+    
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+    
+    public long getProductCount() { return productCount; }
+    public void setProductCount(long productCount) { this.productCount = productCount; }
+    
+    public long getTotalProductCount() { return totalProductCount; }
+    public void setTotalProductCount(long totalProductCount) { this.totalProductCount = totalProductCount; }
+    
+    public List<CategoryTreeResponse> getChildren() { return children; }
+    public void setChildren(List<CategoryTreeResponse> children) { this.children = children; }
+}
@@ -0,0 +1,29 @@
+package com.ecom177.dto;
+
+public class ImageUploadResponse {
+    private String imageId;
+    private String contentType;
+    private long size;
+    private String url;
+    
+    public ImageUploadResponse() {}
+    
+    public ImageUploadResponse(String imageId, String contentType, long size, String url) {
+        this.imageId = imageId;
+        this.contentType = contentType;
+        this.size = size;
+        this.url = url;
+    }
+    
+    public String getImageId() { return imageId; }
+    public void setImageId(String imageId) { this.imageId = imageId; }
+    
+    public String getContentType() { return contentType; }
+    public void setContentType(String contentType) { this.contentType = contentType; }
+    
+    public long getSize() { return size; }
+    public void setSize(long size) { this.size = size; }
+    
+    public String getUrl() { return url; }
+    public void setUrl(String url) { this.url = url; }
+}
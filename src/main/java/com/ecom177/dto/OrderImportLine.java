@@ -0,0 +1,18 @@
+package com.ecom177.dto;
+
+/**
+ * One order of a bulk order ingestion file. {@code reference} is the partner's own order id
+ * and is echoed back in the result; {@code username} defaults to the uploading account.
+ */
+public class OrderImportLine extends OrderRequest {
+    private String reference;
+    private String username;
+
+    public OrderImportLine() {}
+
+    public String getReference() { return reference; }
+    public void setReference(String reference) { this.reference = reference; }
+
+    public String getUsername() { return username; }
+    public void setUsername(String username) { this.username = username; }
+}
@@ -0,0 +1,52 @@
+package com.ecom177.dto;
+
+import java.math.BigDecimal;
+
+public class OrderImportResult {
+    public enum Status { CREATED, REJECTED }
+
+    private long line;
+    private String reference;
+    private Status status;
+    private Long orderId;
+    private BigDecimal totalAmount;
+    private String message;
+
+    public OrderImportResult() {}
+
+    public OrderImportResult(long line, String reference, Status status, Long orderId,
+                             BigDecimal totalAmount, String message) {
+        this.line = line;
+        this.reference = reference;
+        this.status = status;
+        this.orderId = orderId;
+        this.totalAmount = totalAmount;
+        this.message = message;
+    }
+
+    public static OrderImportResult created(long line, String reference, Long orderId, BigDecimal totalAmount) {
+        return new OrderImportResult(line, reference, Status.CREATED, orderId, totalAmount, null);
+    }
+
+    public static OrderImportResult rejected(long line, String reference, String message) {
+        return new OrderImportResult(line, reference, Status.REJECTED, null, null, message);
+    }
+
+    public long getLine() { return line; }
+    public void setLine(long line) { this.line = line; }
+
+    public String getReference() { return reference; }
+    public void setReference(String reference) { this.reference = reference; }
+
+    public Status getStatus() { return status; }
+    public void setStatus(Status status) { this.status = status; }
+
+    public Long getOrderId() { return orderId; }
+    public void setOrderId(Long orderId) { this.orderId = orderId; }
+
+    public BigDecimal getTotalAmount() { return totalAmount; }
+    public void setTotalAmount(BigDecimal totalAmount) { this.totalAmount = totalAmount; }
+
+    public String getMessage() { return message; }
+    public void setMessage(String message) { this.message = message; }
+}
@@ -1,10 +1,18 @@
 package com.ecom177.dto;
 
+import com.ecom177.util.FieldSelection;
+import com.fasterxml.jackson.annotation.JsonFilter;
+
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 
+@JsonFilter(FieldSelection.FILTER_ID)
 public class OrderResponse {
+    // Allowed values for fields=; orderItems is all or nothing
+    public static final List<String> FIELDS = List.of("id", "userId", "username", "orderDate", "status",
+            "totalAmount", "shippingAddress", "orderItems", "createdAt", "updatedAt");
+    
     private Long id;
     private Long userId;
     private String username;
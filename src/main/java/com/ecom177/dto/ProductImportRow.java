@@ -0,0 +1,14 @@
+package com.ecom177.dto;
+
+/**
+ * One row of a bulk product import. Rows with an {@code id} update that product; rows
+ * without one create a new product.
+ */
+public class ProductImportRow extends ProductRequest {
+    private Long id;
+
+    public ProductImportRow() {}
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+}
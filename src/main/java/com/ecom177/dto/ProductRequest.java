@@ -23,8 +23,11 @@ public class ProductRequest {
     @NotNull(message = "Category ID is required")
     private Long categoryId;
     
+    // Legacy inline image; prefer uploading to /api/images and passing imageId
     private String base64Image;
     
+    private String imageId;
+    
     public ProductRequest() {}
     
     // Getters and Setters
@@ -45,4 +48,7 @@ public class ProductRequest {
     
     public String getBase64Image() { return base64Image; }
     public void setBase64Image(String base64Image) { this.base64Image = base64Image; }
+    
+    public String getImageId() { return imageId; }
+    public void setImageId(String imageId) { this.imageId = imageId; }
 }
\ No newline at end of file
@@ -1,8 +1,17 @@
 package com.ecom177.dto;
 
+import com.ecom177.util.FieldSelection;
+import com.fasterxml.jackson.annotation.JsonFilter;
+
 import java.math.BigDecimal;
+import java.util.List;
 
+@JsonFilter(FieldSelection.FILTER_ID)
 public class ProductResponse {
+    // Allowed values for fields=
+    public static final List<String> FIELDS = List.of("id", "name", "description", "price", "stockQuantity",
+            "categoryId", "categoryName", "base64Image", "imageUrl");
+    
     private Long id;
     private String name;
     private String description;
@@ -11,11 +20,13 @@ public class ProductResponse {
     private Long categoryId;
     private String categoryName;
     private String base64Image;
+    private String imageUrl;
     
     public ProductResponse() {}
     
     public ProductResponse(Long id, String name, String description, BigDecimal price, 
-                          Integer stockQuantity, Long categoryId, String categoryName, String base64Image) {
+                          Integer stockQuantity, Long categoryId, String categoryName, String base64Image,
+                          String imageUrl) {
         this.id = id;
         this.name = name;
         this.description = description;
@@ -24,6 +35,7 @@ public class ProductResponse {
         this.categoryId = categoryId;
         this.categoryName = categoryName;
         this.base64Image = base64Image;
+        this.imageUrl = imageUrl;
     }
     
     // Getters and Setters
@@ -50,4 +62,7 @@ public class ProductResponse {
     
     public String getBase64Image() { return base64Image; }
     public void setBase64Image(String base64Image) { this.base64Image = base64Image; }
+    
+    public String getImageUrl() { return imageUrl; }
+    public void setImageUrl(String imageUrl) { this.imageUrl = imageUrl; }
 }
\ No newline at end of file
@@ -0,0 +1,64 @@
+package com.ecom177.entity;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * One ancestor/descendant pair of the category tree, including each category paired with
+ * itself at depth 0. A subtree is then a single indexed lookup on {@code ancestor_id}.
+ * Rows are maintained by {@code CategoryService}.
+ */
+@Entity
+@Table(name = "category_closure",
+       indexes = @Index(name = "idx_category_closure_descendant", columnList = "descendant_id"))
+@IdClass(CategoryClosure.Key.class)
+public class CategoryClosure {
+    @Id
+    @Column(name = "ancestor_id")
+    private Long ancestorId;
+    
+    @Id
+    @Column(name = "descendant_id")
+    private Long descendantId;
+    
+    @Column(nullable = false)
+    private int depth;
+    
+    public CategoryClosure() {}
+    
+    // Getters and Setters
+    public Long getAncestorId() { return ancestorId; }
+    public void setAncestorId(Long ancestorId) { this.ancestorId = ancestorId; }
+    
+    public Long getDescendantId() { return descendantId; }
+    public void setDescendantId(Long descendantId) { this.descendantId = descendantId; }
+    
+    public int getDepth() { return depth; }
+    public void setDepth(int depth) { this.depth = depth; }
+    
+    public static class Key implements Serializable {
+        private Long ancestorId;
+        private Long descendantId;
+        
+        public Key() {}
+        
+        public Key(Long ancestorId, Long descendantId) {
+            this.ancestorId = ancestorId;
+            this.descendantId = descendantId;
+        }
+        
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key other
+                    && Objects.equals(ancestorId, other.ancestorId)
+                    && Objects.equals(descendantId, other.descendantId);
+        }
+        
+        @Override
+        public int hashCode() {
+            return Objects.hash(ancestorId, descendantId);
+        }
+    }
+}
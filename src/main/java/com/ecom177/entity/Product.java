@@ -5,13 +5,20 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.DecimalMin;
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.ecom177.config.SecondLevelCacheConfig;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.math.BigDecimal;
 
 @Entity
 @Table(name = "products")
+@Cacheable
+// includeLazy = false keeps the inline image out of the region, which is sized by entry count
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = SecondLevelCacheConfig.PRODUCT_REGION, includeLazy = false)
 public class Product {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "products_seq")
+    @SequenceGenerator(name = "products_seq", sequenceName = "products_seq", allocationSize = 50)
     private Long id;
     
     @NotBlank
@@ -32,9 +39,14 @@ public class Product {
     @JsonBackReference
     private Category category;
     
+    // Lazy through bytecode enhancement: loaded on first access, never cached
+    @Basic(fetch = FetchType.LAZY)
     @Column(name = "base64_image", columnDefinition = "TEXT")
     private String base64Image;
     
+    @Column(name = "image_id", length = 64)
+    private String imageId;
+    
     public Product() {}
     
     public Product(String name, String description, BigDecimal price, Integer stockQuantity, Category category) {
@@ -66,4 +78,7 @@ public class Product {
     
     public String getBase64Image() { return base64Image; }
     public void setBase64Image(String base64Image) { this.base64Image = base64Image; }
+    
+    public String getImageId() { return imageId; }
+    public void setImageId(String imageId) { this.imageId = imageId; }
 }
\ No newline at end of file
@@ -0,0 +1,32 @@
+package com.ecom177.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "revoked_tokens")
+public class RevokedToken {
+    // The access token's jti claim
+    @Id
+    @Column(length = 36)
+    private String id;
+    
+    // Once the access token itself has expired the row is no longer needed
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+    
+    public RevokedToken() {}
+    
+    public RevokedToken(String id, LocalDateTime expiresAt) {
+        this.id = id;
+        this.expiresAt = expiresAt;
+    }
+    
+    // Getters and Setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    
+    public LocalDateTime getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(LocalDateTime expiresAt) { this.expiresAt = expiresAt; }
+}
@@ -7,6 +7,7 @@ import jakarta.validation.constraints.Size;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
+import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.Collections;
 
@@ -14,7 +15,8 @@ import java.util.Collections;
 @Table(name = "users")
 public class User implements UserDetails {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private Long id;
     
     @NotBlank
@@ -39,6 +41,10 @@ public class User implements UserDetails {
     @Enumerated(EnumType.STRING)
     private Role role = Role.USER;
     
+    // Access tokens issued before this are rejected; set when an admin revokes the user's sessions
+    @Column(name = "tokens_not_before")
+    private LocalDateTime tokensNotBefore;
+    
     public User() {}
     
     public User(String username, String email, String password, String firstName, String lastName) {
@@ -71,6 +77,9 @@ public class User implements UserDetails {
     public Role getRole() { return role; }
     public void setRole(Role role) { this.role = role; }
     
+    public LocalDateTime getTokensNotBefore() { return tokensNotBefore; }
+    public void setTokensNotBefore(LocalDateTime tokensNotBefore) { this.tokensNotBefore = tokensNotBefore; }
+    
     // UserDetails implementation
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
@@ -0,0 +1,26 @@
+package com.ecom177.event;
+
+/**
+ * Published by {@code CategoryService} whenever a category is created, updated or deleted.
+ */
+public class CategoryChangedEvent {
+    private final Long categoryId;
+    private final String name;
+    private final Long parentId;
+    private final boolean deleted;
+    
+    public CategoryChangedEvent(Long categoryId, String name, Long parentId, boolean deleted) {
+        this.categoryId = categoryId;
+        this.name = name;
+        this.parentId = parentId;
+        this.deleted = deleted;
+    }
+    
+    public Long getCategoryId() { return categoryId; }
+    
+    public String getName() { return name; }
+    
+    public Long getParentId() { return parentId; }
+    
+    public boolean isDeleted() { return deleted; }
+}
\ No newline at end of file
@@ -0,0 +1,39 @@
+package com.ecom177.event;
+
+import java.util.List;
+
+/**
+ * Published by {@code OrderService} once an order has been persisted. Listeners that only
+ * care about committed orders should use {@code @TransactionalEventListener}.
+ */
+public class OrderPlacedEvent {
+    private final Long orderId;
+    private final List<Item> items;
+    
+    public OrderPlacedEvent(Long orderId, List<Item> items) {
+        this.orderId = orderId;
+        this.items = items;
+    }
+    
+    public Long getOrderId() { return orderId; }
+    
+    public List<Item> getItems() { return items; }
+    
+    public static class Item {
+        private final long productId;
+        private final Long categoryId;
+        private final int quantity;
+        
+        public Item(long productId, Long categoryId, int quantity) {
+            this.productId = productId;
+            this.categoryId = categoryId;
+            this.quantity = quantity;
+        }
+        
+        public long getProductId() { return productId; }
+        
+        public Long getCategoryId() { return categoryId; }
+        
+        public int getQuantity() { return quantity; }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,38 @@
+package com.ecom177.event;
+
+/**
+ * Published by {@code ProductService} whenever a product is created, updated or deleted.
+ * Carries the fields in-memory indexes need so listeners do not have to reload the product.
+ * {@code previousCategoryId} is the category before the change (null for a new product), so
+ * per-category counts can be adjusted without a query.
+ */
+public class ProductChangedEvent {
+    private final Long productId;
+    private final String name;
+    private final String description;
+    private final Long categoryId;
+    private final Long previousCategoryId;
+    private final boolean deleted;
+    
+    public ProductChangedEvent(Long productId, String name, String description, Long categoryId,
+                               Long previousCategoryId, boolean deleted) {
+        this.productId = productId;
+        this.name = name;
+        this.description = description;
+        this.categoryId = categoryId;
+        this.previousCategoryId = previousCategoryId;
+        this.deleted = deleted;
+    }
+    
+    public Long getProductId() { return productId; }
+    
+    public String getName() { return name; }
+    
+    public String getDescription() { return description; }
+    
+    public Long getCategoryId() { return categoryId; }
+    
+    public Long getPreviousCategoryId() { return previousCategoryId; }
+    
+    public boolean isDeleted() { return deleted; }
+}
\ No newline at end of file
@@ -0,0 +1,12 @@
+package com.ecom177.exception;
+
+/**
+ * Thrown instead of calling the database while its circuit breaker is open, so callers can tell
+ * a known outage apart from other reasons for a 503.
+ */
+public class CircuitOpenException extends ServiceUnavailableException {
+    
+    public CircuitOpenException(String message, long retryAfterSeconds) {
+        super(message, retryAfterSeconds);
+    }
+}
@@ -0,0 +1,66 @@
+package com.ecom177.repository;
+
+import com.ecom177.entity.CategoryClosure;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import jakarta.persistence.QueryHint;
+
+/**
+ * Native maintenance of the category closure table. Each statement declares
+ * {@code category_closure} as its only query space so Hibernate does not evict the whole
+ * second-level cache after it.
+ */
+@Repository
+public interface CategoryClosureRepository extends JpaRepository<CategoryClosure, CategoryClosure.Key> {
+    
+    boolean existsByAncestorIdAndDescendantId(Long ancestorId, Long descendantId);
+    
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "category_closure"))
+    @Query(value = "INSERT INTO category_closure (ancestor_id, descendant_id, depth) VALUES (:id, :id, 0)",
+           nativeQuery = true)
+    void insertSelfLink(@Param("id") Long id);
+    
+    // Links every category in the subtree rooted at :id to :parentId and all of its ancestors
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "category_closure"))
+    @Query(value = "INSERT INTO category_closure (ancestor_id, descendant_id, depth) " +
+                   "SELECT a.ancestor_id, d.descendant_id, a.depth + d.depth + 1 " +
+                   "FROM category_closure a JOIN category_closure d ON d.ancestor_id = :id " +
+                   "WHERE a.descendant_id = :parentId",
+           nativeQuery = true)
+    void attachSubtree(@Param("id") Long id, @Param("parentId") Long parentId);
+    
+    // Removes the links between the subtree rooted at :id and everything above it, keeping the
+    // links inside the subtree
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "category_closure"))
+    @Query(value = "DELETE FROM category_closure " +
+                   "WHERE descendant_id IN (SELECT descendant_id FROM category_closure WHERE ancestor_id = :id) " +
+                   "AND ancestor_id NOT IN (SELECT descendant_id FROM category_closure WHERE ancestor_id = :id)",
+           nativeQuery = true)
+    void detachSubtree(@Param("id") Long id);
+    
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "category_closure"))
+    @Query(value = "DELETE FROM category_closure WHERE ancestor_id = :id OR descendant_id = :id",
+           nativeQuery = true)
+    void deleteLinks(@Param("id") Long id);
+    
+    // Categories inserted without going through CategoryService (seed data) become roots
+    @Transactional
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "category_closure"))
+    @Query(value = "INSERT INTO category_closure (ancestor_id, descendant_id, depth) " +
+                   "SELECT c.id, c.id, 0 FROM categories c WHERE NOT EXISTS " +
+                   "(SELECT 1 FROM category_closure cc WHERE cc.ancestor_id = c.id AND cc.descendant_id = c.id)",
+           nativeQuery = true)
+    int insertMissingSelfLinks();
+}
@@ -2,12 +2,28 @@ package com.ecom177.repository;
 
 import com.ecom177.entity.Category;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import jakarta.persistence.QueryHint;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface CategoryRepository extends JpaRepository<Category, Long> {
+    // Served from the query cache; Hibernate invalidates it on any write to categories
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
     Optional<Category> findByName(String name);
+
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
     boolean existsByName(String name);
+    
+    @Query("SELECT c.id, c.name FROM Category c")
+    List<Object[]> findAllNames();
+    
+    @Query("SELECT c.id, c.name, parent.id FROM Category c LEFT JOIN c.parent parent")
+    List<Object[]> findAllNodes();
+    
+    boolean existsByParentId(Long parentId);
 }
\ No newline at end of file
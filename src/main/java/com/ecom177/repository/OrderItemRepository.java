@@ -1,12 +1,31 @@
 package com.ecom177.repository;
 
 import com.ecom177.entity.OrderItem;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.jpa.SpecHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
     List<OrderItem> findByOrderId(Long orderId);
-}
\ No newline at end of file
+    
+    // Scans every order item for the related-products rebuild, so exempt from the query timeout
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = SpecHints.HINT_SPEC_QUERY_TIMEOUT, value = "0")
+    })
+    @Query("SELECT oi.order.id, oi.product.id FROM OrderItem oi ORDER BY oi.order.id")
+    Stream<Object[]> streamOrderProductPairs();
+    
+    @Query("SELECT DISTINCT oi.order.id FROM OrderItem oi WHERE oi.order.id IN :orderIds")
+    List<Long> findOrderIdsIn(@Param("orderIds") Collection<Long> orderIds);
+}
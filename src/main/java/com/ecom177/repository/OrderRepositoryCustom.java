@@ -0,0 +1,13 @@
+package com.ecom177.repository;
+
+import com.ecom177.dto.OrderResponse;
+import com.ecom177.util.FieldSelection;
+
+import java.util.List;
+
+public interface OrderRepositoryCustom {
+    
+    // Newest first, optionally for one user; only the columns behind the requested fields are
+    // selected, and items are loaded (in one extra query per 500 orders) only if requested
+    List<OrderResponse> findProjected(String username, FieldSelection fields);
+}
@@ -0,0 +1,92 @@
+package com.ecom177.repository;
+
+import com.ecom177.dto.OrderResponse;
+import com.ecom177.entity.Order;
+import com.ecom177.entity.User;
+import com.ecom177.util.FieldSelection;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class OrderRepositoryCustomImpl implements OrderRepositoryCustom {
+    
+    private static final int ITEM_QUERY_CHUNK = 500;
+    
+    private final EntityManager entityManager;
+    
+    public OrderRepositoryCustomImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+    
+    @Override
+    public List<OrderResponse> findProjected(String username, FieldSelection fields) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Order> order = query.from(Order.class);
+        Join<Order, User> user = username != null || fields.includes("username") ? order.join("user") : null;
+        
+        List<Selection<?>> selections = new ArrayList<>();
+        for (String field : fields.getFields()) {
+            switch (field) {
+                case "orderItems" -> { }
+                case "userId" -> selections.add(order.get("user").get("id").alias(field));
+                case "username" -> selections.add(user.get("username").alias(field));
+                default -> selections.add(order.get(field).alias(field));
+            }
+        }
+        query.multiselect(selections).orderBy(cb.desc(order.get("orderDate")));
+        if (username != null) {
+            query.where(cb.equal(user.get("username"), username));
+        }
+        
+        Map<Long, OrderResponse> orders = new LinkedHashMap<>();
+        for (Tuple tuple : entityManager.createQuery(query).getResultList()) {
+            OrderResponse response = new OrderResponse();
+            for (String field : fields.getFields()) {
+                switch (field) {
+                    case "id" -> response.setId(tuple.get(field, Long.class));
+                    case "userId" -> response.setUserId(tuple.get(field, Long.class));
+                    case "username" -> response.setUsername(tuple.get(field, String.class));
+                    case "orderDate" -> response.setOrderDate(tuple.get(field, LocalDateTime.class));
+                    case "status" -> response.setStatus(tuple.get(field, Order.OrderStatus.class).name());
+                    case "totalAmount" -> response.setTotalAmount(tuple.get(field, BigDecimal.class));
+                    case "shippingAddress" -> response.setShippingAddress(tuple.get(field, String.class));
+                    case "createdAt" -> response.setCreatedAt(tuple.get(field, LocalDateTime.class));
+                    case "updatedAt" -> response.setUpdatedAt(tuple.get(field, LocalDateTime.class));
+                    case "orderItems" -> response.setOrderItems(new ArrayList<>());
+                    default -> throw new IllegalArgumentException("Unsupported order field: " + field);
+                }
+            }
+            orders.put(response.getId(), response);
+        }
+        
+        if (fields.includes("orderItems") && !orders.isEmpty()) {
+            List<Long> ids = new ArrayList<>(orders.keySet());
+            for (int from = 0; from < ids.size(); from += ITEM_QUERY_CHUNK) {
+                List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + ITEM_QUERY_CHUNK));
+                List<Object[]> rows = entityManager.createQuery(
+                        "SELECT oi.order.id, oi.id, p.id, p.name, p.base64Image, oi.quantity, oi.unitPrice, oi.totalPrice " +
+                        "FROM OrderItem oi JOIN oi.product p WHERE oi.order.id IN :ids ORDER BY oi.id", Object[].class)
+                        .setParameter("ids", chunk)
+                        .getResultList();
+                for (Object[] row : rows) {
+                    orders.get((Long) row[0]).getOrderItems().add(new OrderResponse.OrderItemResponse(
+                            (Long) row[1], (Long) row[2], (String) row[3], (String) row[4],
+                            (Integer) row[5], (BigDecimal) row[6], (BigDecimal) row[7]));
+                }
+            }
+        }
+        return new ArrayList<>(orders.values());
+    }
+}
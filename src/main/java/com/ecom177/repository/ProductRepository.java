@@ -2,16 +2,54 @@ package com.ecom177.repository;
 
 import com.ecom177.entity.Product;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.jpa.SpecHints;
+
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductRepositoryCustom {
+    // A category matches its whole subtree, expanded through the closure table
     @Query("SELECT p FROM Product p WHERE " +
            "(:name IS NULL OR LOWER(p.name) LIKE LOWER(CONCAT('%', :name, '%'))) AND " +
-           "(:categoryIds IS NULL OR p.category.id IN :categoryIds)")
+           "(:categoryIds IS NULL OR p.category.id IN " +
+           "(SELECT cc.descendantId FROM CategoryClosure cc WHERE cc.ancestorId IN :categoryIds))")
     List<Product> searchProducts(@Param("name") String name, @Param("categoryIds") List<Long> categoryIds);
-}
\ No newline at end of file
+    
+    @Query("SELECT p.id, p.name, p.description FROM Product p")
+    List<Object[]> findAllTextFields();
+    
+    @Query("SELECT p.id, p.name FROM Product p")
+    List<Object[]> findAllNames();
+    
+    @Query("SELECT p.category.id, COUNT(p) FROM Product p WHERE p.category IS NOT NULL GROUP BY p.category.id")
+    List<Object[]> countByCategory();
+    
+    boolean existsByCategoryId(Long categoryId);
+    
+    // Cursor over the whole catalog for export: fetched in chunks, read-only, bypassing the L2 cache,
+    // and exempt from the query timeout since it runs as long as the download
+    @Query("SELECT p FROM Product p LEFT JOIN FETCH p.category ORDER BY p.id")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = SpecHints.HINT_SPEC_QUERY_TIMEOUT, value = "0"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "IGNORE")
+    })
+    Stream<Product> streamAllForExport();
+    
+    // Locks in id order so concurrent callers cannot deadlock on overlapping products
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Product p WHERE p.id IN :ids ORDER BY p.id")
+    List<Product> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+}
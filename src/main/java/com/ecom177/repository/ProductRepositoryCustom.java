@@ -0,0 +1,17 @@
+package com.ecom177.repository;
+
+import com.ecom177.dto.ProductResponse;
+import com.ecom177.util.FieldSelection;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+public interface ProductRepositoryCustom {
+    
+    // Selects only the columns behind the requested fields; the others are left null
+    List<ProductResponse> findAllProjected(FieldSelection fields);
+    
+    // Inline images of the given products, for lists: the column is lazy and not in the L2 cache
+    Map<Long, String> findInlineImages(Collection<Long> productIds);
+}
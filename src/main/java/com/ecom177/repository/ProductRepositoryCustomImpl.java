@@ -0,0 +1,92 @@
+package com.ecom177.repository;
+
+import com.ecom177.dto.ProductResponse;
+import com.ecom177.entity.Category;
+import com.ecom177.entity.Product;
+import com.ecom177.service.ImageService;
+import com.ecom177.util.FieldSelection;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ProductRepositoryCustomImpl implements ProductRepositoryCustom {
+    
+    private static final int IMAGE_QUERY_CHUNK = 500;
+    
+    private final EntityManager entityManager;
+    
+    public ProductRepositoryCustomImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+    
+    @Override
+    public List<ProductResponse> findAllProjected(FieldSelection fields) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Product> product = query.from(Product.class);
+        // categoryId is the foreign key itself; only the name needs the join
+        Join<Product, Category> category = fields.includes("categoryName") ? product.join("category", JoinType.LEFT) : null;
+        
+        List<Selection<?>> selections = new ArrayList<>();
+        for (String field : fields.getFields()) {
+            selections.add(switch (field) {
+                case "categoryId" -> product.get("category").get("id").alias(field);
+                case "categoryName" -> category.get("name").alias(field);
+                case "imageUrl" -> product.get("imageId").alias(field);
+                default -> product.get(field).alias(field);
+            });
+        }
+        query.multiselect(selections).orderBy(cb.asc(product.get("id")));
+        
+        List<ProductResponse> products = new ArrayList<>();
+        for (Tuple tuple : entityManager.createQuery(query).getResultList()) {
+            ProductResponse response = new ProductResponse();
+            for (String field : fields.getFields()) {
+                switch (field) {
+                    case "id" -> response.setId(tuple.get(field, Long.class));
+                    case "name" -> response.setName(tuple.get(field, String.class));
+                    case "description" -> response.setDescription(tuple.get(field, String.class));
+                    case "price" -> response.setPrice(tuple.get(field, BigDecimal.class));
+                    case "stockQuantity" -> response.setStockQuantity(tuple.get(field, Integer.class));
+                    case "categoryId" -> response.setCategoryId(tuple.get(field, Long.class));
+                    case "categoryName" -> response.setCategoryName(tuple.get(field, String.class));
+                    case "base64Image" -> response.setBase64Image(tuple.get(field, String.class));
+                    case "imageUrl" -> response.setImageUrl(ImageService.imageUrl(tuple.get(field, String.class)));
+                    default -> throw new IllegalArgumentException("Unsupported product field: " + field);
+                }
+            }
+            products.add(response);
+        }
+        return products;
+    }
+    
+    @Override
+    public Map<Long, String> findInlineImages(Collection<Long> productIds) {
+        List<Long> ids = new ArrayList<>(productIds);
+        Map<Long, String> images = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += IMAGE_QUERY_CHUNK) {
+            List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + IMAGE_QUERY_CHUNK));
+            List<Object[]> rows = entityManager.createQuery(
+                    "SELECT p.id, p.base64Image FROM Product p WHERE p.id IN :ids AND p.base64Image IS NOT NULL",
+                    Object[].class)
+                    .setParameter("ids", chunk)
+                    .getResultList();
+            for (Object[] row : rows) {
+                images.put((Long) row[0], (String) row[1]);
+            }
+        }
+        return images;
+    }
+}
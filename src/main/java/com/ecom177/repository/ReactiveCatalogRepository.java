@@ -0,0 +1,136 @@
+package com.ecom177.repository;
+
+import com.ecom177.dto.CategoryResponse;
+import com.ecom177.dto.ProductResponse;
+import com.ecom177.service.ImageService;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import io.r2dbc.spi.Readable;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Non-blocking, read-only catalog queries over R2DBC for the reactive catalog API.
+ * <p>
+ * The connection pool is private to this class rather than a {@code ConnectionFactory} bean.
+ * Exposing one would make Boot back off its JDBC {@code DataSource} and take JPA down with it.
+ * All writes stay on the JPA stack.
+ */
+@Repository
+@ConditionalOnProperty(name = "app.reactive-catalog.enabled", havingValue = "true")
+public class ReactiveCatalogRepository {
+
+    private static final String PRODUCT_COLUMNS =
+            "SELECT p.id, p.name, p.description, p.price, p.stock_quantity, p.category_id, " +
+            "c.name AS category_name, p.base64_image, p.image_id " +
+            "FROM products p LEFT JOIN categories c ON c.id = p.category_id ";
+
+    private final ConnectionPool connectionPool;
+    private final DatabaseClient databaseClient;
+
+    public ReactiveCatalogRepository(@Value("${app.reactive-catalog.url}") String url,
+                                     @Value("${app.reactive-catalog.username:${spring.datasource.username:}}") String username,
+                                     @Value("${app.reactive-catalog.password:${spring.datasource.password:}}") String password,
+                                     @Value("${app.reactive-catalog.pool-size:10}") int poolSize) {
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build();
+        this.connectionPool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                .initialSize(Math.min(2, poolSize))
+                .maxSize(poolSize)
+                .maxAcquireTime(Duration.ofSeconds(5))
+                .maxIdleTime(Duration.ofMinutes(30))
+                .build());
+        this.databaseClient = DatabaseClient.create(connectionPool);
+    }
+
+    public Flux<ProductResponse> findAllProducts() {
+        return databaseClient.sql(PRODUCT_COLUMNS + "ORDER BY p.id")
+                .map(ReactiveCatalogRepository::toProduct)
+                .all();
+    }
+
+    public Mono<ProductResponse> findProductById(Long id) {
+        return databaseClient.sql(PRODUCT_COLUMNS + "WHERE p.id = :id")
+                .bind("id", id)
+                .map(ReactiveCatalogRepository::toProduct)
+                .one();
+    }
+
+    // Same filter semantics as ProductRepository.searchProducts
+    public Flux<ProductResponse> searchProducts(String name, List<Long> categoryIds) {
+        StringBuilder sql = new StringBuilder(PRODUCT_COLUMNS).append("WHERE 1 = 1");
+        if (name != null) {
+            sql.append(" AND LOWER(p.name) LIKE LOWER(CONCAT('%', :name, '%'))");
+        }
+        if (categoryIds != null) {
+            if (categoryIds.isEmpty()) {
+                return Flux.empty();
+            }
+            sql.append(" AND p.category_id IN (SELECT descendant_id FROM category_closure WHERE ancestor_id IN (:categoryIds))");
+        }
+        sql.append(" ORDER BY p.id");
+
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql.toString());
+        if (name != null) {
+            spec = spec.bind("name", name);
+        }
+        if (categoryIds != null) {
+            spec = spec.bind("categoryIds", categoryIds);
+        }
+        return spec.map(ReactiveCatalogRepository::toProduct).all();
+    }
+
+    public Flux<CategoryResponse> findAllCategories() {
+        return databaseClient.sql("SELECT id, name, description, parent_id FROM categories ORDER BY id")
+                .map(ReactiveCatalogRepository::toCategory)
+                .all();
+    }
+
+    public Mono<CategoryResponse> findCategoryById(Long id) {
+        return databaseClient.sql("SELECT id, name, description, parent_id FROM categories WHERE id = :id")
+                .bind("id", id)
+                .map(ReactiveCatalogRepository::toCategory)
+                .one();
+    }
+
+    @PreDestroy
+    public void close() {
+        connectionPool.dispose();
+    }
+
+    private static ProductResponse toProduct(Readable row) {
+        return new ProductResponse(
+                row.get("id", Long.class),
+                row.get("name", String.class),
+                row.get("description", String.class),
+                row.get("price", BigDecimal.class),
+                row.get("stock_quantity", Integer.class),
+                row.get("category_id", Long.class),
+                row.get("category_name", String.class),
+                row.get("base64_image", String.class),
+                ImageService.imageUrl(row.get("image_id", String.class))
+        );
+    }
+
+    private static CategoryResponse toCategory(Readable row) {
+        return new CategoryResponse(
+                row.get("id", Long.class),
+                row.get("name", String.class),
+                row.get("description", String.class),
+                row.get("parent_id", Long.class)
+        );
+    }
+}
@@ -2,8 +2,12 @@ package com.ecom177.repository;
 
 import com.ecom177.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -12,4 +16,7 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     boolean existsByUsername(String username);
     boolean existsByEmail(String email);
+    
+    @Query("SELECT u.id, u.tokensNotBefore FROM User u WHERE u.tokensNotBefore >= :since")
+    List<Object[]> findTokenCutoffsSince(@Param("since") LocalDateTime since);
 }
\ No newline at end of file
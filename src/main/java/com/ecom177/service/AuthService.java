@@ -2,17 +2,22 @@ package com.ecom177.service;
 
 import com.ecom177.dto.AuthResponse;
 import com.ecom177.dto.LoginRequest;
+import com.ecom177.dto.RefreshRequest;
 import com.ecom177.dto.RegisterRequest;
 import com.ecom177.entity.User;
 import com.ecom177.exception.AuthenticationException;
 import com.ecom177.exception.BadRequestException;
+import com.ecom177.exception.ResourceNotFoundException;
 import com.ecom177.repository.UserRepository;
 import com.ecom177.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class AuthService {
@@ -21,13 +26,20 @@ public class AuthService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtUtil jwtUtil;
+    private final UserCache userCache;
+    private final RefreshTokenService refreshTokenService;
+    private final TokenRevocationService tokenRevocationService;
     
     public AuthService(AuthenticationManager authenticationManager, UserRepository userRepository, 
-                      PasswordEncoder passwordEncoder, JwtUtil jwtUtil) {
+                      PasswordEncoder passwordEncoder, JwtUtil jwtUtil, UserCache userCache,
+                      RefreshTokenService refreshTokenService, TokenRevocationService tokenRevocationService) {
         this.authenticationManager = authenticationManager;
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.jwtUtil = jwtUtil;
+        this.userCache = userCache;
+        this.refreshTokenService = refreshTokenService;
+        this.tokenRevocationService = tokenRevocationService;
     }
     
     public AuthResponse login(LoginRequest request) {
@@ -38,9 +50,11 @@ public class AuthService {
             
             User user = (User) authentication.getPrincipal();
             String token = jwtUtil.generateToken(user);
+            String refreshToken = refreshTokenService.issue(user);
         
             return new AuthResponse(
                     token,
+                    refreshToken,
                     user.getUsername(),
                     user.getEmail(),
                     user.getFirstName(),
@@ -70,10 +84,13 @@ public class AuthService {
         );
         
         User savedUser = userRepository.save(user);
+        userCache.evict(savedUser.getUsername());
         String token = jwtUtil.generateToken(savedUser);
+        String refreshToken = refreshTokenService.issue(savedUser);
         
         return new AuthResponse(
                 token,
+                refreshToken,
                 savedUser.getUsername(),
                 savedUser.getEmail(),
                 savedUser.getFirstName(),
@@ -81,4 +98,47 @@ public class AuthService {
                 savedUser.getRole().name()
         );
     }
-}
\ No newline at end of file
+    
+    @Transactional(noRollbackFor = AuthenticationException.class)
+    public AuthResponse refresh(RefreshRequest request) {
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(request.getRefreshToken());
+        User user = rotation.getUser();
+        String token = jwtUtil.generateToken(user);
+        
+        return new AuthResponse(
+                token,
+                rotation.getRefreshToken(),
+                user.getUsername(),
+                user.getEmail(),
+                user.getFirstName(),
+                user.getLastName(),
+                user.getRole().name()
+        );
+    }
+    
+    @Transactional
+    public void logout(String accessToken, String refreshToken) {
+        if (accessToken != null) {
+            try {
+                Claims claims = jwtUtil.extractAllClaims(accessToken);
+                if (claims.getId() != null) {
+                    tokenRevocationService.revoke(claims.getId(), claims.getExpiration());
+                }
+            } catch (JwtException | IllegalArgumentException e) {
+                // Expired or invalid tokens are already unusable
+            }
+        }
+        if (refreshToken != null && !refreshToken.isBlank()) {
+            refreshTokenService.revoke(refreshToken);
+        }
+    }
+    
+    /** Ends every session of the user: refresh tokens and access tokens already issued. */
+    @Transactional
+    public void revokeUserSessions(Long userId) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
+        refreshTokenService.revokeAllForUser(userId);
+        tokenRevocationService.revokeAllForUser(user);
+    }
+}
@@ -2,36 +2,66 @@ package com.ecom177.service;
 
 import com.ecom177.dto.CategoryRequest;
 import com.ecom177.dto.CategoryResponse;
+import com.ecom177.dto.CategoryTreeResponse;
 import com.ecom177.entity.Category;
+import com.ecom177.event.CategoryChangedEvent;
 import com.ecom177.exception.BadRequestException;
 import com.ecom177.exception.ResourceNotFoundException;
+import com.ecom177.repository.CategoryClosureRepository;
 import com.ecom177.repository.CategoryRepository;
+import com.ecom177.repository.ProductRepository;
+import com.ecom177.util.Coalesced;
+import com.ecom177.util.ServeStale;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 @Service
 public class CategoryService {
     
     private final CategoryRepository categoryRepository;
+    private final CategoryClosureRepository closureRepository;
+    private final ProductRepository productRepository;
+    private final CategoryTreeCache treeCache;
+    private final ApplicationEventPublisher eventPublisher;
     
-    public CategoryService(CategoryRepository categoryRepository) {
+    public CategoryService(CategoryRepository categoryRepository, CategoryClosureRepository closureRepository,
+                           ProductRepository productRepository, CategoryTreeCache treeCache,
+                           ApplicationEventPublisher eventPublisher) {
         this.categoryRepository = categoryRepository;
+        this.closureRepository = closureRepository;
+        this.productRepository = productRepository;
+        this.treeCache = treeCache;
+        this.eventPublisher = eventPublisher;
     }
     
+    @ServeStale
+    @Coalesced
+    @Transactional(readOnly = true)
     public List<CategoryResponse> getAllCategories() {
         return categoryRepository.findAll().stream()
                 .map(this::convertToResponse)
                 .collect(Collectors.toList());
     }
     
+    @ServeStale
+    @Coalesced
+    @Transactional(readOnly = true)
     public CategoryResponse getCategoryById(Long id) {
         Category category = categoryRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Category", "id", id));
         return convertToResponse(category);
     }
     
+    public List<CategoryTreeResponse> getCategoryTree() {
+        return treeCache.getTree();
+    }
+    
+    @Transactional
     public CategoryResponse createCategory(CategoryRequest request) {
         // Business logic: Check if category name already exists
         if (categoryRepository.existsByName(request.getName())) {
@@ -41,11 +71,19 @@ public class CategoryService {
         Category category = new Category();
         category.setName(request.getName());
         category.setDescription(request.getDescription());
+        category.setParent(findParent(request.getParentId()));
         
-        Category savedCategory = categoryRepository.save(category);
+        // Sequence ids defer the INSERT to flush time; the closure rows reference it
+        Category savedCategory = categoryRepository.saveAndFlush(category);
+        closureRepository.insertSelfLink(savedCategory.getId());
+        if (savedCategory.getParent() != null) {
+            closureRepository.attachSubtree(savedCategory.getId(), savedCategory.getParent().getId());
+        }
+        publishChanged(savedCategory);
         return convertToResponse(savedCategory);
     }
     
+    @Transactional
     public CategoryResponse updateCategory(Long id, CategoryRequest request) {
         Category existingCategory = categoryRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Category", "id", id));
@@ -56,25 +94,44 @@ public class CategoryService {
             throw new BadRequestException("Category with name '" + request.getName() + "' already exists");
         }
         
+        Long currentParentId = existingCategory.getParent() != null ? existingCategory.getParent().getId() : null;
+        if (!Objects.equals(currentParentId, request.getParentId())) {
+            // Business logic: A category cannot be moved below itself or one of its descendants
+            if (request.getParentId() != null && closureRepository.existsByAncestorIdAndDescendantId(id, request.getParentId())) {
+                throw new BadRequestException("Cannot move a category under itself or one of its subcategories");
+            }
+            existingCategory.setParent(findParent(request.getParentId()));
+            closureRepository.detachSubtree(id);
+            if (request.getParentId() != null) {
+                closureRepository.attachSubtree(id, request.getParentId());
+            }
+        }
+        
         existingCategory.setName(request.getName());
         existingCategory.setDescription(request.getDescription());
         
         Category updatedCategory = categoryRepository.save(existingCategory);
+        publishChanged(updatedCategory);
         return convertToResponse(updatedCategory);
     }
     
+    @Transactional
     public void deleteCategory(Long id) {
         if (!categoryRepository.existsById(id)) {
             throw new ResourceNotFoundException("Category", "id", id);
         }
         
-        // Business logic: Check if category has products
-        Category category = categoryRepository.findById(id).get();
-        if (category.getProducts() != null && !category.getProducts().isEmpty()) {
+        // Business logic: Check if category has products or subcategories (indexed existence checks)
+        if (productRepository.existsByCategoryId(id)) {
             throw new BadRequestException("Cannot delete category that has products");
         }
+        if (categoryRepository.existsByParentId(id)) {
+            throw new BadRequestException("Cannot delete category that has subcategories");
+        }
         
+        closureRepository.deleteLinks(id);
         categoryRepository.deleteById(id);
+        eventPublisher.publishEvent(new CategoryChangedEvent(id, null, null, true));
     }
     
     public Category findById(Long id) {
@@ -82,11 +139,29 @@ public class CategoryService {
                 .orElseThrow(() -> new ResourceNotFoundException("Category", "id", id));
     }
     
+    private Category findParent(Long parentId) {
+        if (parentId == null) {
+            return null;
+        }
+        return categoryRepository.findById(parentId)
+                .orElseThrow(() -> new BadRequestException("Parent category not found with id: " + parentId));
+    }
+    
+    private void publishChanged(Category category) {
+        eventPublisher.publishEvent(new CategoryChangedEvent(
+                category.getId(),
+                category.getName(),
+                category.getParent() != null ? category.getParent().getId() : null,
+                false
+        ));
+    }
+    
     private CategoryResponse convertToResponse(Category category) {
         return new CategoryResponse(
                 category.getId(),
                 category.getName(),
-                category.getDescription()
+                category.getDescription(),
+                category.getParent() != null ? category.getParent().getId() : null
         );
     }
 }
\ No newline at end of file
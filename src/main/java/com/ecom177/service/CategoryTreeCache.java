@@ -0,0 +1,195 @@
+package com.ecom177.service;
+
+import com.ecom177.dto.CategoryTreeResponse;
+import com.ecom177.event.CategoryChangedEvent;
+import com.ecom177.event.ProductChangedEvent;
+import com.ecom177.repository.CategoryRepository;
+import com.ecom177.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * In-memory copy of the category tree with direct and subtree product counts. It is loaded
+ * once and then kept current from committed {@link ProductChangedEvent}s and
+ * {@link CategoryChangedEvent}s: a product change adjusts the counts along one ancestor chain,
+ * and a category move shifts its subtree total from the old chain to the new one.
+ * <p>
+ * If an event does not fit the cached tree (e.g. it refers to an unknown category), the
+ * tree is reloaded from the database instead.
+ */
+@Service
+public class CategoryTreeCache {
+
+    private static final Logger log = LoggerFactory.getLogger(CategoryTreeCache.class);
+
+    private final CategoryRepository categoryRepository;
+    private final ProductRepository productRepository;
+
+    private final Map<Long, Node> nodes = new HashMap<>();
+    private boolean loaded;
+
+    public CategoryTreeCache(CategoryRepository categoryRepository, ProductRepository productRepository) {
+        this.categoryRepository = categoryRepository;
+        this.productRepository = productRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reload();
+    }
+
+    public synchronized List<CategoryTreeResponse> getTree() {
+        ensureLoaded();
+        return nodes.values().stream()
+                .filter(node -> node.parentId == null)
+                .sorted(Node.BY_NAME)
+                .map(CategoryTreeCache::toResponse)
+                .toList();
+    }
+
+    @TransactionalEventListener
+    public synchronized void onProductChanged(ProductChangedEvent event) {
+        if (!loaded) {
+            return;
+        }
+        Long previous = event.getPreviousCategoryId();
+        Long current = event.isDeleted() ? null : event.getCategoryId();
+        if (Objects.equals(previous, current)) {
+            return;
+        }
+        if ((previous != null && !nodes.containsKey(previous)) || (current != null && !nodes.containsKey(current))) {
+            reload();
+            return;
+        }
+        if (previous != null) {
+            Node node = nodes.get(previous);
+            node.directCount--;
+            addToChain(node, -1);
+        }
+        if (current != null) {
+            Node node = nodes.get(current);
+            node.directCount++;
+            addToChain(node, 1);
+        }
+    }
+
+    @TransactionalEventListener
+    public synchronized void onCategoryChanged(CategoryChangedEvent event) {
+        if (!loaded) {
+            return;
+        }
+        Long id = event.getCategoryId();
+        Node node = nodes.get(id);
+        if (event.isDeleted()) {
+            // Only empty leaves can be deleted, so no counts change
+            if (node != null) {
+                detach(node);
+                nodes.remove(id);
+            }
+            return;
+        }
+        if (event.getParentId() != null && !nodes.containsKey(event.getParentId())) {
+            reload();
+            return;
+        }
+        if (node == null) {
+            node = new Node(id, event.getName(), null);
+            nodes.put(id, node);
+        } else {
+            node.name = event.getName();
+            if (Objects.equals(node.parentId, event.getParentId())) {
+                return;
+            }
+            detach(node);
+        }
+        node.parentId = event.getParentId();
+        if (node.parentId != null) {
+            Node parent = nodes.get(node.parentId);
+            parent.children.add(node);
+            addToChain(parent, node.totalCount);
+        }
+    }
+
+    public synchronized void reload() {
+        Map<Long, Long> counts = new HashMap<>();
+        for (Object[] row : productRepository.countByCategory()) {
+            counts.put((Long) row[0], (Long) row[1]);
+        }
+        nodes.clear();
+        for (Object[] row : categoryRepository.findAllNodes()) {
+            Long id = (Long) row[0];
+            Node node = new Node(id, (String) row[1], (Long) row[2]);
+            node.directCount = counts.getOrDefault(id, 0L);
+            nodes.put(id, node);
+        }
+        for (Node node : nodes.values()) {
+            if (node.parentId != null) {
+                nodes.get(node.parentId).children.add(node);
+            }
+        }
+        for (Node node : nodes.values()) {
+            addToChain(node, node.directCount);
+        }
+        loaded = true;
+        log.debug("Loaded category tree with {} categories", nodes.size());
+    }
+
+    private void ensureLoaded() {
+        if (!loaded) {
+            reload();
+        }
+    }
+
+    // Adds delta to the subtree total of node and every ancestor
+    private void addToChain(Node node, long delta) {
+        for (Node current = node; current != null; current = current.parentId != null ? nodes.get(current.parentId) : null) {
+            current.totalCount += delta;
+        }
+    }
+
+    private void detach(Node node) {
+        if (node.parentId != null) {
+            Node parent = nodes.get(node.parentId);
+            if (parent != null) {
+                parent.children.remove(node);
+                addToChain(parent, -node.totalCount);
+            }
+            node.parentId = null;
+        }
+    }
+
+    private static CategoryTreeResponse toResponse(Node node) {
+        List<CategoryTreeResponse> children = new ArrayList<>(node.children.size());
+        node.children.stream().sorted(Node.BY_NAME).forEach(child -> children.add(toResponse(child)));
+        return new CategoryTreeResponse(node.id, node.name, node.directCount, node.totalCount, children);
+    }
+
+    private static class Node {
+        static final Comparator<Node> BY_NAME = Comparator.comparing((Node node) -> node.name, String.CASE_INSENSITIVE_ORDER)
+                .thenComparing(node -> node.id);
+
+        final Long id;
+        String name;
+        Long parentId;
+        long directCount;
+        long totalCount;
+        final List<Node> children = new ArrayList<>();
+
+        Node(Long id, String name, Long parentId) {
+            this.id = id;
+            this.name = name;
+            this.parentId = parentId;
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package com.ecom177.service;
+
+import com.ecom177.exception.BadRequestException;
+import com.ecom177.util.ImageStorage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Produces resized JPEG variants of uploaded images on a small background pool, so uploads
+ * return as soon as the original is stored. Variants are written next to the original
+ * ({@code <imageId>/thumb.jpg}, {@code <imageId>/medium.jpg}) and, like the original, never change.
+ * <p>
+ * The queue is bounded. When it is full the job is dropped rather than blocking the upload; a
+ * request for a missing variant serves the original and queues the job again, so variants for
+ * dropped jobs (or images uploaded before a restart) fill in on first use. A job that fails is
+ * not queued again until its backoff has passed, doubling from {@code retry-backoff-ms} up to
+ * {@code max-retry-backoff-ms} with each further failure.
+ */
+@Service
+public class ImageDerivativeService {
+
+    public enum Size {
+        ORIGINAL(0),
+        MEDIUM(800),
+        THUMB(200);
+
+        private final int maxDimension;
+
+        Size(int maxDimension) {
+            this.maxDimension = maxDimension;
+        }
+
+        public static Size fromParameter(String value) {
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestException("Unknown image size: " + value + "; expected original, medium or thumb");
+            }
+        }
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(ImageDerivativeService.class);
+
+    private final ImageStorage imageStorage;
+    private final ThreadPoolExecutor executor;
+    private final long maxPixels;
+    private final float jpegQuality;
+    private final long retryBackoffMs;
+    private final long maxRetryBackoffMs;
+
+    // Jobs queued or running, so repeated requests for a missing variant queue it only once
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+    // Originals that could not be decoded; they are served as-is instead of being retried forever
+    private final Set<String> undecodable = ConcurrentHashMap.newKeySet();
+    // Jobs that failed on a storage or codec error, which may be transient, and when to try again
+    private final Map<String, Failure> failures = new ConcurrentHashMap<>();
+
+    private final Timer jobTimer;
+    private final Counter completedJobs;
+    private final Counter failedJobs;
+    private final Counter rejectedJobs;
+
+    public ImageDerivativeService(ImageStorage imageStorage, MeterRegistry meterRegistry,
+                                  @Value("${app.images.derivatives.pool-size:2}") int poolSize,
+                                  @Value("${app.images.derivatives.queue-capacity:200}") int queueCapacity,
+                                  @Value("${app.images.derivatives.max-pixels:40000000}") long maxPixels,
+                                  @Value("${app.images.derivatives.jpeg-quality:0.85}") float jpegQuality,
+                                  @Value("${app.images.derivatives.retry-backoff-ms:60000}") long retryBackoffMs,
+                                  @Value("${app.images.derivatives.max-retry-backoff-ms:86400000}") long maxRetryBackoffMs) {
+        this.imageStorage = imageStorage;
+        this.maxPixels = maxPixels;
+        this.jpegQuality = jpegQuality;
+        this.retryBackoffMs = retryBackoffMs;
+        this.maxRetryBackoffMs = maxRetryBackoffMs;
+        // Decode from memory/streams only; the default disk cache adds a temp file per image
+        ImageIO.setUseCache(false);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "image-derivatives-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.NORM_PRIORITY - 1);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+
+        this.jobTimer = Timer.builder("images.derivatives.duration").register(meterRegistry);
+        this.completedJobs = Counter.builder("images.derivatives.jobs").tag("result", "completed").register(meterRegistry);
+        this.failedJobs = Counter.builder("images.derivatives.jobs").tag("result", "failed").register(meterRegistry);
+        this.rejectedJobs = Counter.builder("images.derivatives.jobs").tag("result", "rejected").register(meterRegistry);
+        Gauge.builder("images.derivatives.queue.depth", executor, e -> e.getQueue().size())
+                .register(meterRegistry);
+        Gauge.builder("images.derivatives.active", executor, ThreadPoolExecutor::getActiveCount)
+                .register(meterRegistry);
+    }
+
+    /** Queues variant generation for a freshly stored image. Never blocks. */
+    public void enqueue(String imageId) {
+        if (!hasDerivatives(imageId) || undecodable.contains(imageId) || isBackingOff(imageId)
+                || !pending.add(imageId)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    jobTimer.record(() -> generate(imageId));
+                } finally {
+                    pending.remove(imageId);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pending.remove(imageId);
+            rejectedJobs.increment();
+            log.debug("Image derivative queue full, dropping job for {}", imageId);
+        }
+    }
+
+    /** Returns the stored variant, or empty if it has not been generated (yet). */
+    public Optional<Resource> loadVariant(String imageId, Size size) {
+        if (size == Size.ORIGINAL || !hasDerivatives(imageId)) {
+            return Optional.empty();
+        }
+        return imageStorage.load(variantKey(imageId, size));
+    }
+
+    // ImageIO has no WebP codec, so WebP originals are always served as uploaded
+    public static boolean hasDerivatives(String imageId) {
+        return !imageId.endsWith(".webp");
+    }
+
+    static String variantKey(String imageId, Size size) {
+        return imageId + "/" + size.name().toLowerCase(Locale.ROOT) + ".jpg";
+    }
+
+    private void generate(String imageId) {
+        try {
+            Optional<Resource> original = imageStorage.load(ImageService.originalKey(imageId));
+            if (original.isEmpty()) {
+                return;
+            }
+            BufferedImage source;
+            try (InputStream in = original.get().getInputStream()) {
+                source = decode(in);
+            }
+            if (source == null) {
+                undecodable.add(imageId);
+                failedJobs.increment();
+                log.warn("Image {} could not be decoded, serving the original for all sizes", imageId);
+                return;
+            }
+            for (Size size : new Size[]{Size.MEDIUM, Size.THUMB}) {
+                String key = variantKey(imageId, size);
+                if (!imageStorage.exists(key)) {
+                    imageStorage.save(key, new ByteArrayInputStream(encodeJpeg(resize(source, size.maxDimension))));
+                }
+            }
+            failures.remove(imageId);
+            completedJobs.increment();
+        } catch (IOException | RuntimeException e) {
+            Failure failure = failures.compute(imageId, (id, previous) -> {
+                int attempts = previous != null ? previous.attempts() + 1 : 1;
+                long backoff = Math.min(maxRetryBackoffMs, retryBackoffMs << Math.min(attempts - 1, 30));
+                return new Failure(attempts, System.currentTimeMillis() + backoff);
+            });
+            failedJobs.increment();
+            log.warn("Generating derivatives for image {} failed (attempt {}), not retrying for {} ms",
+                    imageId, failure.attempts(), failure.retryAt() - System.currentTimeMillis(), e);
+        }
+    }
+
+    private boolean isBackingOff(String imageId) {
+        Failure failure = failures.get(imageId);
+        return failure != null && System.currentTimeMillis() < failure.retryAt();
+    }
+
+    // Reads the header first so a small file that declares a huge canvas is refused before
+    // the pixel buffer is allocated
+    private BufferedImage decode(InputStream in) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(in)) {
+            Iterator<ImageReader> readers = input != null ? ImageIO.getImageReaders(input) : null;
+            if (readers == null || !readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                long pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+                if (pixels > maxPixels) {
+                    log.warn("Image has {} pixels, above the limit of {}", pixels, maxPixels);
+                    return null;
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // Halves the image until it is within 2x of the target and finishes with one bilinear step,
+    // which avoids the aliasing of a single large bilinear downscale at a fraction of bicubic's cost.
+    // Transparent areas are flattened onto white since JPEG has no alpha.
+    private static BufferedImage resize(BufferedImage source, int maxDimension) {
+        double scale = Math.min(1.0, (double) maxDimension / Math.max(source.getWidth(), source.getHeight()));
+        int targetWidth = Math.max(1, (int) Math.round(source.getWidth() * scale));
+        int targetHeight = Math.max(1, (int) Math.round(source.getHeight() * scale));
+
+        BufferedImage current = source;
+        int width = source.getWidth();
+        int height = source.getHeight();
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            BufferedImage step = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = step.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                g.setColor(Color.WHITE);
+                g.fillRect(0, 0, width, height);
+                g.drawImage(current, 0, 0, width, height, null);
+            } finally {
+                g.dispose();
+            }
+            current = step;
+        } while (width != targetWidth || height != targetHeight);
+        return current;
+    }
+
+    private byte[] encodeJpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(bytes)) {
+            writer.setOutput(output);
+            ImageWriteParam params = writer.getDefaultWriteParam();
+            params.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            params.setCompressionQuality(jpegQuality);
+            params.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+            writer.write(null, new IIOImage(image, null, null), params);
+        } finally {
+            writer.dispose();
+        }
+        return bytes.toByteArray();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private record Failure(int attempts, long retryAt) {
+    }
+}
@@ -0,0 +1,219 @@
+package com.ecom177.service;
+
+import com.ecom177.dto.ImageUploadResponse;
+import com.ecom177.exception.BadRequestException;
+import com.ecom177.exception.PayloadTooLargeException;
+import com.ecom177.exception.ResourceNotFoundException;
+import com.ecom177.util.ImageStorage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Accepts product image uploads as a stream. The format is taken from the file's magic bytes,
+ * not the client's Content-Type, and the size limit is enforced while copying, so an oversized
+ * or disguised upload is rejected without ever being buffered in memory.
+ * <p>
+ * Image ids embed the format ({@code <32 hex chars>.<ext>}) and are never reused, so stored
+ * images are immutable and can be cached forever. Resized variants are produced in the background
+ * by {@link ImageDerivativeService}; until a variant exists the original is served in its place.
+ */
+@Service
+public class ImageService {
+
+    public enum ImageType {
+        JPEG("jpg", MediaType.IMAGE_JPEG),
+        PNG("png", MediaType.IMAGE_PNG),
+        GIF("gif", MediaType.IMAGE_GIF),
+        WEBP("webp", MediaType.parseMediaType("image/webp"));
+
+        private final String extension;
+        private final MediaType mediaType;
+
+        ImageType(String extension, MediaType mediaType) {
+            this.extension = extension;
+            this.mediaType = mediaType;
+        }
+
+        public MediaType getMediaType() { return mediaType; }
+
+        static ImageType fromExtension(String extension) {
+            return Arrays.stream(values()).filter(type -> type.extension.equals(extension)).findFirst().orElseThrow();
+        }
+    }
+
+    private static final Pattern IMAGE_ID = Pattern.compile("[0-9a-f]{32}\\.(jpg|png|gif|webp)");
+    private static final int SNIFF_LENGTH = 12;
+
+    public record StoredImage(Resource resource, MediaType mediaType, boolean exactSize) {
+    }
+
+    private final ImageStorage imageStorage;
+    private final ImageDerivativeService derivativeService;
+    private final long maxBytes;
+    private final DistributionSummary uploadedBytes;
+    private final MeterRegistry meterRegistry;
+
+    public ImageService(ImageStorage imageStorage, ImageDerivativeService derivativeService, MeterRegistry meterRegistry,
+                        @Value("${app.images.max-size-mb:10}") long maxSizeMb) {
+        this.imageStorage = imageStorage;
+        this.derivativeService = derivativeService;
+        this.maxBytes = maxSizeMb * 1024 * 1024;
+        this.meterRegistry = meterRegistry;
+        this.uploadedBytes = DistributionSummary.builder("images.upload.size")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    public ImageUploadResponse upload(InputStream content, String declaredContentType) throws IOException {
+        byte[] header = content.readNBytes(SNIFF_LENGTH);
+        ImageType type = sniff(header);
+        if (type == null) {
+            reject("unsupported_type");
+            throw new BadRequestException("Unsupported image format; expected JPEG, PNG, GIF or WebP");
+        }
+        if (declaredContentType != null) {
+            MediaType declared = MediaType.parseMediaType(declaredContentType);
+            if (declared.getType().equals("image") && !declared.isWildcardSubtype()
+                    && !declared.equalsTypeAndSubtype(type.mediaType)) {
+                reject("type_mismatch");
+                throw new BadRequestException("Content-Type " + declared + " does not match the uploaded " + type.mediaType + " data");
+            }
+        }
+
+        String imageId = UUID.randomUUID().toString().replace("-", "") + "." + type.extension;
+        InputStream limited = new LimitedInputStream(
+                new SequenceInputStream(new ByteArrayInputStream(header), content), maxBytes);
+        long size;
+        try {
+            size = imageStorage.save(originalKey(imageId), limited);
+        } catch (PayloadTooLargeException e) {
+            reject("too_large");
+            throw e;
+        }
+        uploadedBytes.record(size);
+        derivativeService.enqueue(imageId);
+        return new ImageUploadResponse(imageId, type.mediaType.toString(), size, imageUrl(imageId));
+    }
+
+    /**
+     * Loads the requested size. If that variant has not been generated yet, the original is
+     * returned with {@code exactSize} false and the variant is queued.
+     */
+    public StoredImage load(String imageId, ImageDerivativeService.Size size) {
+        requireValidId(imageId);
+        Optional<Resource> variant = derivativeService.loadVariant(imageId, size);
+        if (variant.isPresent()) {
+            return new StoredImage(variant.get(), MediaType.IMAGE_JPEG, true);
+        }
+        Resource original = imageStorage.load(originalKey(imageId))
+                .orElseThrow(() -> new ResourceNotFoundException("Image not found: " + imageId));
+        boolean exactSize = size == ImageDerivativeService.Size.ORIGINAL || !ImageDerivativeService.hasDerivatives(imageId);
+        if (!exactSize) {
+            derivativeService.enqueue(imageId);
+        }
+        return new StoredImage(original, mediaType(imageId), exactSize);
+    }
+
+    public boolean exists(String imageId) {
+        return imageId != null && IMAGE_ID.matcher(imageId).matches() && imageStorage.exists(originalKey(imageId));
+    }
+
+    public static MediaType mediaType(String imageId) {
+        return ImageType.fromExtension(imageId.substring(imageId.lastIndexOf('.') + 1)).mediaType;
+    }
+
+    public static String imageUrl(String imageId) {
+        return imageId != null ? "/api/images/" + imageId : null;
+    }
+
+    public static String imageUrl(String imageId, ImageDerivativeService.Size size) {
+        return size == ImageDerivativeService.Size.ORIGINAL
+                ? imageUrl(imageId)
+                : imageUrl(imageId) + "?size=" + size.name().toLowerCase(Locale.ROOT);
+    }
+
+    static String originalKey(String imageId) {
+        return imageId + "/original";
+    }
+
+    private static void requireValidId(String imageId) {
+        if (imageId == null || !IMAGE_ID.matcher(imageId).matches()) {
+            throw new ResourceNotFoundException("Image not found: " + imageId);
+        }
+    }
+
+    private void reject(String reason) {
+        Counter.builder("images.upload.rejected").tag("reason", reason).register(meterRegistry).increment();
+    }
+
+    private static ImageType sniff(byte[] h) {
+        if (h.length >= 3 && (h[0] & 0xFF) == 0xFF && (h[1] & 0xFF) == 0xD8 && (h[2] & 0xFF) == 0xFF) {
+            return ImageType.JPEG;
+        }
+        if (h.length >= 8 && (h[0] & 0xFF) == 0x89 && h[1] == 'P' && h[2] == 'N' && h[3] == 'G'
+                && h[4] == 0x0D && h[5] == 0x0A && h[6] == 0x1A && h[7] == 0x0A) {
+            return ImageType.PNG;
+        }
+        if (h.length >= 6 && h[0] == 'G' && h[1] == 'I' && h[2] == 'F' && h[3] == '8'
+                && (h[4] == '7' || h[4] == '9') && h[5] == 'a') {
+            return ImageType.GIF;
+        }
+        if (h.length >= 12 && h[0] == 'R' && h[1] == 'I' && h[2] == 'F' && h[3] == 'F'
+                && h[8] == 'W' && h[9] == 'E' && h[10] == 'B' && h[11] == 'P') {
+            return ImageType.WEBP;
+        }
+        return null;
+    }
+
+    // Fails the copy as soon as the limit is crossed instead of after the whole body has been read
+    private static class LimitedInputStream extends FilterInputStream {
+        private final long limit;
+        private long count;
+
+        LimitedInputStream(InputStream in, long limit) {
+            super(in);
+            this.limit = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                count(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count(n);
+            }
+            return n;
+        }
+
+        private void count(int n) {
+            count += n;
+            if (count > limit) {
+                throw new PayloadTooLargeException("Image exceeds the maximum size of " + limit / (1024 * 1024) + " MB");
+            }
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package com.ecom177.service;
+
+import com.ecom177.dto.OrderImportLine;
+import com.ecom177.dto.OrderImportResult;
+import com.ecom177.dto.OrderRequest;
+import com.ecom177.entity.Order;
+import com.ecom177.entity.OrderItem;
+import com.ecom177.entity.Product;
+import com.ecom177.entity.User;
+import com.ecom177.repository.ProductRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Ingests partner order files (NDJSON, one order per line) in chunks of
+ * {@code app.order-import.chunk-size} orders, one transaction per chunk.
+ * <p>
+ * Each chunk locks all the products it references with one ordered {@code SELECT ... FOR UPDATE}.
+ * Every order is then checked against the stock still left in the chunk, so an order that
+ * cannot be filled is rejected without affecting the others. The surviving stock changes are
+ * written as one UPDATE per product, and the orders and items as JDBC batches. If the chunk
+ * fails in the database it is retried one order per transaction, so orders that can commit
+ * still do.
+ */
+@Service
+public class OrderImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderImportService.class);
+
+    private final ProductRepository productRepository;
+    private final UserCache userCache;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectReader lineReader;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int chunkSize;
+
+    private final Counter createdOrders;
+    private final Counter rejectedOrders;
+
+    public OrderImportService(ProductRepository productRepository, UserCache userCache, EntityManager entityManager,
+                              PlatformTransactionManager transactionManager, Validator validator,
+                              ObjectMapper objectMapper, ApplicationEventPublisher eventPublisher,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.order-import.chunk-size:500}") int chunkSize) {
+        this.productRepository = productRepository;
+        this.userCache = userCache;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.validator = validator;
+        this.lineReader = objectMapper.readerFor(OrderImportLine.class);
+        this.eventPublisher = eventPublisher;
+        this.chunkSize = Math.max(1, chunkSize);
+
+        this.createdOrders = Counter.builder("orders.import").tag("result", "created").register(meterRegistry);
+        this.rejectedOrders = Counter.builder("orders.import").tag("result", "rejected").register(meterRegistry);
+    }
+
+    /**
+     * Reads orders from {@code reader} and passes one result per order to {@code results} as each
+     * chunk completes. Orders without a {@code username} are placed for {@code defaultUsername}.
+     */
+    public void importOrders(Reader reader, String defaultUsername, Consumer<OrderImportResult> results)
+            throws IOException {
+        BufferedReader lines = reader instanceof BufferedReader buffered ? buffered : new BufferedReader(reader);
+        List<ParsedOrder> chunk = new ArrayList<>(chunkSize);
+        long lineNumber = 0;
+        String text;
+        while ((text = lines.readLine()) != null) {
+            lineNumber++;
+            if (text.isBlank()) {
+                continue;
+            }
+            OrderImportLine line;
+            try {
+                line = lineReader.readValue(text);
+            } catch (JsonProcessingException e) {
+                emit(OrderImportResult.rejected(lineNumber, null, "Invalid JSON: " + e.getOriginalMessage()), results);
+                continue;
+            }
+            String error = validate(line);
+            if (error != null) {
+                emit(OrderImportResult.rejected(lineNumber, line.getReference(), error), results);
+                continue;
+            }
+            chunk.add(new ParsedOrder(lineNumber, line));
+            if (chunk.size() == chunkSize) {
+                ingest(chunk, defaultUsername, results);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            ingest(chunk, defaultUsername, results);
+        }
+    }
+
+    private void ingest(List<ParsedOrder> chunk, String defaultUsername, Consumer<OrderImportResult> results) {
+        List<OrderImportResult> outcome;
+        try {
+            outcome = transactionTemplate.execute(status -> placeOrders(chunk, defaultUsername));
+        } catch (RuntimeException chunkFailure) {
+            log.debug("Order import chunk failed, retrying order by order: {}", chunkFailure.getMessage());
+            outcome = new ArrayList<>(chunk.size());
+            for (ParsedOrder order : chunk) {
+                try {
+                    outcome.addAll(transactionTemplate.execute(status -> placeOrders(List.of(order), defaultUsername)));
+                } catch (RuntimeException orderFailure) {
+                    outcome.add(OrderImportResult.rejected(order.line, order.request.getReference(),
+                            NestedExceptionUtils.getMostSpecificCause(orderFailure).getMessage()));
+                }
+            }
+        }
+        outcome.forEach(result -> emit(result, results));
+    }
+
+    private List<OrderImportResult> placeOrders(List<ParsedOrder> orders, String defaultUsername) {
+        Set<Long> productIds = orders.stream()
+                .flatMap(order -> order.request.getOrderItems().stream())
+                .map(OrderRequest.OrderItemRequest::getProductId)
+                .collect(Collectors.toCollection(TreeSet::new));
+        Map<Long, Product> products = productRepository.findAllByIdForUpdate(productIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        List<OrderImportResult> results = new ArrayList<>(orders.size());
+        List<ParsedOrder> placedFrom = new ArrayList<>();
+        List<Order> placed = new ArrayList<>();
+        for (ParsedOrder parsed : orders) {
+            OrderImportLine request = parsed.request;
+            String username = request.getUsername() != null ? request.getUsername() : defaultUsername;
+            Optional<User> user = userCache.findByUsername(username);
+            if (user.isEmpty()) {
+                results.add(OrderImportResult.rejected(parsed.line, request.getReference(), "User not found: " + username));
+                continue;
+            }
+
+            // Totals per product, so an order listing the same product twice is checked as a whole
+            Map<Long, Integer> quantities = new LinkedHashMap<>();
+            String problem = null;
+            for (OrderRequest.OrderItemRequest item : request.getOrderItems()) {
+                if (!products.containsKey(item.getProductId())) {
+                    problem = "Product not found: " + item.getProductId();
+                    break;
+                }
+                quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+            }
+            if (problem == null) {
+                for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+                    Product product = products.get(entry.getKey());
+                    if (product.getStockQuantity() < entry.getValue()) {
+                        problem = "Insufficient stock for product: " + product.getName();
+                        break;
+                    }
+                }
+            }
+            if (problem != null) {
+                results.add(OrderImportResult.rejected(parsed.line, request.getReference(), problem));
+                continue;
+            }
+
+            Order order = new Order();
+            order.setUser(entityManager.getReference(User.class, user.get().getId()));
+            order.setOrderDate(LocalDateTime.now());
+            order.setShippingAddress(request.getShippingAddress());
+            order.setStatus(Order.OrderStatus.PENDING);
+            BigDecimal totalAmount = BigDecimal.ZERO;
+            for (OrderRequest.OrderItemRequest itemRequest : request.getOrderItems()) {
+                Product product = products.get(itemRequest.getProductId());
+                OrderItem orderItem = new OrderItem();
+                orderItem.setOrder(order);
+                orderItem.setProduct(product);
+                orderItem.setQuantity(itemRequest.getQuantity());
+                orderItem.setUnitPrice(product.getPrice());
+                orderItem.setTotalPrice(product.getPrice().multiply(BigDecimal.valueOf(itemRequest.getQuantity())));
+                order.getOrderItems().add(orderItem);
+                totalAmount = totalAmount.add(orderItem.getTotalPrice());
+            }
+            order.setTotalAmount(totalAmount);
+            quantities.forEach((productId, quantity) -> {
+                Product product = products.get(productId);
+                product.setStockQuantity(product.getStockQuantity() - quantity);
+            });
+            entityManager.persist(order);
+            placedFrom.add(parsed);
+            placed.add(order);
+        }
+
+        entityManager.flush();
+        for (int i = 0; i < placed.size(); i++) {
+            Order order = placed.get(i);
+            ParsedOrder parsed = placedFrom.get(i);
+            results.add(OrderImportResult.created(parsed.line, parsed.request.getReference(),
+                    order.getId(), order.getTotalAmount()));
+            eventPublisher.publishEvent(OrderService.toPlacedEvent(order));
+        }
+        entityManager.clear();
+        results.sort(Comparator.comparingLong(OrderImportResult::getLine));
+        return results;
+    }
+
+    private String validate(OrderImportLine line) {
+        Set<ConstraintViolation<OrderImportLine>> violations = validator.validate(line);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .sorted(Comparator.comparing(violation -> violation.getPropertyPath().toString()))
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .collect(Collectors.joining("; "));
+        }
+        for (OrderRequest.OrderItemRequest item : line.getOrderItems()) {
+            if (item.getQuantity() <= 0) {
+                return "Quantity must be positive for product: " + item.getProductId();
+            }
+        }
+        return null;
+    }
+
+    private void emit(OrderImportResult result, Consumer<OrderImportResult> results) {
+        (result.getStatus() == OrderImportResult.Status.CREATED ? createdOrders : rejectedOrders).increment();
+        results.accept(result);
+    }
+
+    private record ParsedOrder(long line, OrderImportLine request) {
+    }
+}
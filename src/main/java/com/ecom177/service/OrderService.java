@@ -6,11 +6,13 @@ import com.ecom177.entity.Order;
 import com.ecom177.entity.OrderItem;
 import com.ecom177.entity.Product;
 import com.ecom177.entity.User;
+import com.ecom177.event.OrderPlacedEvent;
 import com.ecom177.exception.ResourceNotFoundException;
 import com.ecom177.repository.OrderRepository;
 import com.ecom177.repository.OrderItemRepository;
 import com.ecom177.repository.ProductRepository;
-import com.ecom177.repository.UserRepository;
+import com.ecom177.util.FieldSelection;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -18,6 +20,10 @@ import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -27,14 +33,17 @@ public class OrderService {
     private final OrderRepository orderRepository;
     private final OrderItemRepository orderItemRepository;
     private final ProductRepository productRepository;
-    private final UserRepository userRepository;
+    private final UserCache userCache;
+    private final ApplicationEventPublisher eventPublisher;
     
     public OrderService(OrderRepository orderRepository, OrderItemRepository orderItemRepository,
-                       ProductRepository productRepository, UserRepository userRepository) {
+                       ProductRepository productRepository, UserCache userCache,
+                       ApplicationEventPublisher eventPublisher) {
         this.orderRepository = orderRepository;
         this.orderItemRepository = orderItemRepository;
         this.productRepository = productRepository;
-        this.userRepository = userRepository;
+        this.userCache = userCache;
+        this.eventPublisher = eventPublisher;
     }
     
     public OrderResponse createOrder(OrderRequest request) {
@@ -48,9 +57,19 @@ public class OrderService {
         
         BigDecimal totalAmount = BigDecimal.ZERO;
         
+        // Lock the rows before reading stock, so concurrent checkouts and imports cannot both
+        // sell the last units; a cached findById would check a stale count
+        Set<Long> productIds = request.getOrderItems().stream()
+                .map(OrderRequest.OrderItemRequest::getProductId)
+                .collect(Collectors.toCollection(TreeSet::new));
+        Map<Long, Product> products = productRepository.findAllByIdForUpdate(productIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        
         for (OrderRequest.OrderItemRequest itemRequest : request.getOrderItems()) {
-            Product product = productRepository.findById(itemRequest.getProductId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Product not found: " + itemRequest.getProductId()));
+            Product product = products.get(itemRequest.getProductId());
+            if (product == null) {
+                throw new ResourceNotFoundException("Product not found: " + itemRequest.getProductId());
+            }
             
             if (product.getStockQuantity() < itemRequest.getQuantity()) {
                 throw new ResourceNotFoundException("Insufficient stock for product: " + product.getName());
@@ -72,25 +91,28 @@ public class OrderService {
         
         order.setTotalAmount(totalAmount);
         Order savedOrder = orderRepository.save(order);
+        eventPublisher.publishEvent(toPlacedEvent(savedOrder));
         
         return convertToResponse(savedOrder);
     }
     
-    public List<OrderResponse> getUserOrders() {
+    @Transactional(readOnly = true)
+    public List<OrderResponse> getUserOrders(FieldSelection fields) {
         String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        if (!fields.isAll()) {
+            return orderRepository.findProjected(username, fields);
+        }
         List<Order> orders = orderRepository.findByUserUsernameOrderByOrderDateDesc(username);
-        return orders.stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+        return convertToResponses(orders);
     }
     
+    @Transactional(readOnly = true)
     public List<OrderResponse> getUserOrders(Long userId) {
         List<Order> orders = orderRepository.findByUserIdOrderByOrderDateDesc(userId);
-        return orders.stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+        return convertToResponses(orders);
     }
     
+    @Transactional(readOnly = true)
     public OrderResponse getOrderById(Long orderId) {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new ResourceNotFoundException("Order not found: " + orderId));
@@ -114,19 +136,18 @@ public class OrderService {
     }
     
     @Transactional(readOnly = true)
-    public List<OrderResponse> getAllOrders() {
+    public List<OrderResponse> getAllOrders(FieldSelection fields) {
+        if (!fields.isAll()) {
+            return orderRepository.findProjected(null, fields);
+        }
         List<Order> orders = orderRepository.findAllByOrderByOrderDateDesc();
-        return orders.stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+        return convertToResponses(orders);
     }
     
     @Transactional(readOnly = true)
     public List<OrderResponse> getOrdersByStatus(Order.OrderStatus status) {
         List<Order> orders = orderRepository.findByStatusOrderByOrderDateDesc(status);
-        return orders.stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+        return convertToResponses(orders);
     }
     
     public void deleteOrder(Long orderId) {
@@ -144,8 +165,27 @@ public class OrderService {
     }
     
     private OrderResponse convertToResponse(Order order) {
+        return convertToResponse(order, inlineImages(List.of(order)));
+    }
+    
+    private List<OrderResponse> convertToResponses(List<Order> orders) {
+        Map<Long, String> images = inlineImages(orders);
+        return orders.stream()
+                .map(order -> convertToResponse(order, images))
+                .collect(Collectors.toList());
+    }
+    
+    // Product images are lazy and not in the L2 cache, so load them for all items at once
+    private Map<Long, String> inlineImages(List<Order> orders) {
+        return productRepository.findInlineImages(orders.stream()
+                .flatMap(order -> order.getOrderItems().stream())
+                .map(item -> item.getProduct().getId())
+                .collect(Collectors.toSet()));
+    }
+    
+    private OrderResponse convertToResponse(Order order, Map<Long, String> images) {
         List<OrderResponse.OrderItemResponse> orderItemResponses = order.getOrderItems().stream()
-                .map(this::convertOrderItemToResponse)
+                .map(item -> convertOrderItemToResponse(item, images.get(item.getProduct().getId())))
                 .collect(Collectors.toList());
         
         return new OrderResponse(
@@ -162,21 +202,31 @@ public class OrderService {
         );
     }
     
-    private OrderResponse.OrderItemResponse convertOrderItemToResponse(OrderItem orderItem) {
+    private OrderResponse.OrderItemResponse convertOrderItemToResponse(OrderItem orderItem, String base64Image) {
         return new OrderResponse.OrderItemResponse(
                 orderItem.getId(),
                 orderItem.getProduct().getId(),
                 orderItem.getProduct().getName(),
-                orderItem.getProduct().getBase64Image(),
+                base64Image,
                 orderItem.getQuantity(),
                 orderItem.getUnitPrice(),
                 orderItem.getTotalPrice()
         );
     }
     
+    static OrderPlacedEvent toPlacedEvent(Order order) {
+        List<OrderPlacedEvent.Item> items = order.getOrderItems().stream()
+                .map(item -> new OrderPlacedEvent.Item(
+                        item.getProduct().getId(),
+                        item.getProduct().getCategory() != null ? item.getProduct().getCategory().getId() : null,
+                        item.getQuantity()))
+                .collect(Collectors.toList());
+        return new OrderPlacedEvent(order.getId(), items);
+    }
+    
     private User getCurrentUser() {
         String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        return userRepository.findByUsername(username)
+        return userCache.findByUsername(username)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found: " + username));
     }
 }
\ No newline at end of file
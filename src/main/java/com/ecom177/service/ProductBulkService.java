@@ -0,0 +1,422 @@
+package com.ecom177.service;
+
+import com.ecom177.dto.ProductImportResult;
+import com.ecom177.dto.ProductImportRow;
+import com.ecom177.dto.ProductResponse;
+import com.ecom177.entity.Category;
+import com.ecom177.entity.Product;
+import com.ecom177.event.ProductChangedEvent;
+import com.ecom177.exception.BadRequestException;
+import com.ecom177.repository.CategoryRepository;
+import com.ecom177.repository.ProductRepository;
+import com.ecom177.util.CsvReader;
+import com.ecom177.util.CsvWriter;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Bulk product import and export for catalogs too large for one request per product.
+ * <p>
+ * Imports are parsed row by row straight from the request body. Valid rows are written in
+ * batches, one transaction per batch, so memory use does not depend on the file size. A batch
+ * that fails in the database is retried row by row, so only the offending rows are reported.
+ * Category ids are checked once per import and then referenced without being loaded.
+ */
+@Service
+public class ProductBulkService {
+
+    public enum Format { CSV, NDJSON }
+
+    private static final Logger log = LoggerFactory.getLogger(ProductBulkService.class);
+
+    private static final List<String> REQUIRED_CSV_COLUMNS = List.of("name", "price", "stockQuantity", "categoryId");
+
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate writeTransaction;
+    private final TransactionTemplate readTransaction;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final ObjectReader rowReader;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ImageService imageService;
+    private final int batchSize;
+    private final int maxReportedErrors;
+
+    private final Counter createdRows;
+    private final Counter updatedRows;
+    private final Counter failedRows;
+    private final Timer batchTimer;
+
+    public ProductBulkService(ProductRepository productRepository, CategoryRepository categoryRepository,
+                              EntityManager entityManager, PlatformTransactionManager transactionManager,
+                              Validator validator, ObjectMapper objectMapper,
+                              ApplicationEventPublisher eventPublisher, ImageService imageService,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.product-import.batch-size:500}") int batchSize,
+                              @Value("${app.product-import.max-reported-errors:1000}") int maxReportedErrors) {
+        this.productRepository = productRepository;
+        this.categoryRepository = categoryRepository;
+        this.entityManager = entityManager;
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.rowReader = objectMapper.readerFor(ProductImportRow.class);
+        this.eventPublisher = eventPublisher;
+        this.imageService = imageService;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxReportedErrors = maxReportedErrors;
+
+        this.createdRows = Counter.builder("catalog.import.rows").tag("result", "created").register(meterRegistry);
+        this.updatedRows = Counter.builder("catalog.import.rows").tag("result", "updated").register(meterRegistry);
+        this.failedRows = Counter.builder("catalog.import.rows").tag("result", "failed").register(meterRegistry);
+        this.batchTimer = Timer.builder("catalog.import.batch").register(meterRegistry);
+    }
+
+    /**
+     * Imports every row from {@code reader}, calling {@code progress} after each committed batch,
+     * and returns the final summary.
+     */
+    public ProductImportResult importProducts(Reader reader, Format format, Consumer<ProductImportResult> progress)
+            throws IOException {
+        Import run = new Import();
+        RowSource source = format == Format.CSV ? new CsvRows(reader) : new NdjsonRows(reader);
+        List<NumberedRow> batch = new ArrayList<>(batchSize);
+
+        NumberedRow row;
+        while ((row = source.next()) != null) {
+            String error = row.error != null ? row.error : validate(row.row);
+            if (error != null) {
+                run.fail(row.number, error);
+                continue;
+            }
+            batch.add(row);
+            if (batch.size() == batchSize) {
+                writeBatch(batch, run);
+                batch.clear();
+                progress.accept(run.snapshot(false));
+            }
+        }
+        if (!batch.isEmpty()) {
+            writeBatch(batch, run);
+        }
+        log.info("Product import finished: {} rows, {} created, {} updated, {} failed",
+                run.processed, run.created, run.updated, run.failed);
+        return run.snapshot(true);
+    }
+
+    /** Writes every product to {@code writer} in id order, without product images. */
+    public void exportProducts(Writer writer, Format format) {
+        CsvWriter csv = new CsvWriter(writer);
+        readTransaction.executeWithoutResult(status -> {
+            try (Stream<Product> products = productRepository.streamAllForExport()) {
+                if (format == Format.CSV) {
+                    csv.writeRecord("id", "name", "description", "price", "stockQuantity", "categoryId", "categoryName", "imageId");
+                }
+                Iterable<Product> iterable = products::iterator;
+                for (Product product : iterable) {
+                    Category category = product.getCategory();
+                    Long categoryId = category != null ? category.getId() : null;
+                    String categoryName = category != null ? category.getName() : null;
+                    if (format == Format.CSV) {
+                        csv.writeRecord(product.getId(), product.getName(), product.getDescription(),
+                                product.getPrice().toPlainString(), product.getStockQuantity(), categoryId, categoryName,
+                                product.getImageId());
+                    } else {
+                        writer.write(objectMapper.writeValueAsString(new ProductResponse(
+                                product.getId(), product.getName(), product.getDescription(), product.getPrice(),
+                                product.getStockQuantity(), categoryId, categoryName, null,
+                                ImageService.imageUrl(product.getImageId()))));
+                        writer.write('\n');
+                    }
+                    // Keep the persistence context empty so memory stays flat however many rows there are
+                    entityManager.detach(product);
+                }
+                writer.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private void writeBatch(List<NumberedRow> batch, Import run) {
+        long start = System.nanoTime();
+        try {
+            run.record(writeTransaction.execute(status -> applyBatch(batch, run.categoryExists)));
+        } catch (RuntimeException batchFailure) {
+            // The whole batch was rolled back; redo it one row per transaction to isolate the bad rows
+            log.debug("Import batch failed, retrying row by row: {}", batchFailure.getMessage());
+            for (NumberedRow row : batch) {
+                try {
+                    run.record(writeTransaction.execute(status -> applyBatch(List.of(row), run.categoryExists)));
+                } catch (RuntimeException rowFailure) {
+                    run.fail(row.number, NestedExceptionUtils.getMostSpecificCause(rowFailure).getMessage());
+                }
+            }
+        } finally {
+            batchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private BatchOutcome applyBatch(List<NumberedRow> rows, Map<Long, Boolean> categoryExists) {
+        // Bulk writes would only churn the second-level cache; updates still invalidate it
+        entityManager.unwrap(Session.class).setCacheMode(CacheMode.IGNORE);
+
+        Set<Long> ids = rows.stream()
+                .map(row -> row.row.getId())
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, Product> existing = ids.isEmpty() ? Map.of() : productRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        BatchOutcome outcome = new BatchOutcome();
+        List<Product> written = new ArrayList<>(rows.size());
+        List<Long> previousCategoryIds = new ArrayList<>(rows.size());
+        for (NumberedRow numbered : rows) {
+            ProductImportRow row = numbered.row;
+            if (!categoryExists.computeIfAbsent(row.getCategoryId(), categoryRepository::existsById)) {
+                outcome.errors.add(new ProductImportResult.RowError(numbered.number,
+                        "Category not found with id: " + row.getCategoryId()));
+                continue;
+            }
+            Product product;
+            if (row.getId() != null) {
+                product = existing.get(row.getId());
+                if (product == null) {
+                    outcome.errors.add(new ProductImportResult.RowError(numbered.number,
+                            "Product not found with id: " + row.getId()));
+                    continue;
+                }
+                outcome.updated++;
+                previousCategoryIds.add(product.getCategory() != null ? product.getCategory().getId() : null);
+            } else {
+                product = new Product();
+                outcome.created++;
+                previousCategoryIds.add(null);
+            }
+            product.setName(row.getName());
+            product.setDescription(row.getDescription());
+            product.setPrice(row.getPrice());
+            product.setStockQuantity(row.getStockQuantity());
+            product.setCategory(entityManager.getReference(Category.class, row.getCategoryId()));
+            if (row.getBase64Image() != null) {
+                product.setBase64Image(row.getBase64Image());
+            }
+            if (row.getImageId() != null) {
+                product.setImageId(row.getImageId());
+            }
+            if (product.getId() == null) {
+                entityManager.persist(product);
+            }
+            written.add(product);
+        }
+        entityManager.flush();
+        for (int i = 0; i < written.size(); i++) {
+            Product product = written.get(i);
+            eventPublisher.publishEvent(new ProductChangedEvent(product.getId(), product.getName(),
+                    product.getDescription(), product.getCategory().getId(), previousCategoryIds.get(i), false));
+        }
+        entityManager.clear();
+        return outcome;
+    }
+
+    private String validate(ProductImportRow row) {
+        Set<ConstraintViolation<ProductImportRow>> violations = validator.validate(row);
+        if (violations.isEmpty()) {
+            return row.getImageId() != null && !imageService.exists(row.getImageId())
+                    ? "Image not found: " + row.getImageId()
+                    : null;
+        }
+        return violations.stream()
+                .sorted(Comparator.comparing(violation -> violation.getPropertyPath().toString()))
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .collect(Collectors.joining("; "));
+    }
+
+    private class Import {
+        private final Map<Long, Boolean> categoryExists = new HashMap<>();
+        private final List<ProductImportResult.RowError> errors = new ArrayList<>();
+        private int errorsReported;
+        private boolean errorsTruncated;
+        private long processed;
+        private long created;
+        private long updated;
+        private long failed;
+
+        void record(BatchOutcome outcome) {
+            created += outcome.created;
+            updated += outcome.updated;
+            processed += outcome.created + outcome.updated;
+            createdRows.increment(outcome.created);
+            updatedRows.increment(outcome.updated);
+            outcome.errors.forEach(error -> fail(error.getRow(), error.getMessage()));
+        }
+
+        void fail(long row, String message) {
+            processed++;
+            failed++;
+            failedRows.increment();
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new ProductImportResult.RowError(row, message));
+            } else {
+                errorsTruncated = true;
+            }
+        }
+
+        // Progress snapshots carry only the errors not yet reported; the final summary carries all of them
+        ProductImportResult snapshot(boolean done) {
+            List<ProductImportResult.RowError> reported = new ArrayList<>(
+                    done ? errors : errors.subList(errorsReported, errors.size()));
+            // Rows retried one by one after a failed batch are reported after later parse errors
+            reported.sort(Comparator.comparingLong(ProductImportResult.RowError::getRow));
+            errorsReported = errors.size();
+            return new ProductImportResult(done, processed, created, updated, failed, reported, errorsTruncated);
+        }
+    }
+
+    private static class BatchOutcome {
+        private long created;
+        private long updated;
+        private final List<ProductImportResult.RowError> errors = new ArrayList<>();
+    }
+
+    private record NumberedRow(long number, ProductImportRow row, String error) {
+    }
+
+    private interface RowSource {
+        NumberedRow next() throws IOException;
+    }
+
+    private static class CsvRows implements RowSource {
+        private final CsvReader csv;
+        private final Map<String, Integer> columns = new HashMap<>();
+
+        CsvRows(Reader reader) throws IOException {
+            this.csv = new CsvReader(reader);
+            List<String> header = csv.readRecord();
+            if (header == null) {
+                return;
+            }
+            for (int i = 0; i < header.size(); i++) {
+                columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+            }
+            List<String> missing = REQUIRED_CSV_COLUMNS.stream().filter(column -> !columns.containsKey(column.toLowerCase(Locale.ROOT))).toList();
+            if (!missing.isEmpty()) {
+                throw new BadRequestException("CSV header is missing required columns: " + String.join(", ", missing));
+            }
+        }
+
+        @Override
+        public NumberedRow next() throws IOException {
+            if (columns.isEmpty()) {
+                return null;
+            }
+            List<String> record = csv.readRecord();
+            if (record == null) {
+                return null;
+            }
+            long number = csv.getRecordNumber();
+            ProductImportRow row = new ProductImportRow();
+            try {
+                row.setId(parse(record, "id", Long::valueOf));
+                row.setName(field(record, "name"));
+                row.setDescription(field(record, "description"));
+                row.setPrice(parse(record, "price", BigDecimal::new));
+                row.setStockQuantity(parse(record, "stockQuantity", Integer::valueOf));
+                row.setCategoryId(parse(record, "categoryId", Long::valueOf));
+                row.setBase64Image(field(record, "base64Image"));
+                row.setImageId(field(record, "imageId"));
+            } catch (IllegalArgumentException e) {
+                return new NumberedRow(number, null, e.getMessage());
+            }
+            return new NumberedRow(number, row, null);
+        }
+
+        private String field(List<String> record, String column) {
+            Integer index = columns.get(column.toLowerCase(Locale.ROOT));
+            if (index == null || index >= record.size()) {
+                return null;
+            }
+            String value = record.get(index).trim();
+            return value.isEmpty() ? null : value;
+        }
+
+        private <T> T parse(List<String> record, String column, Function<String, T> parser) {
+            String value = field(record, column);
+            if (value == null) {
+                return null;
+            }
+            try {
+                return parser.apply(value);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid " + column + ": '" + value + "'");
+            }
+        }
+    }
+
+    private class NdjsonRows implements RowSource {
+        private final BufferedReader reader;
+        private long lineNumber;
+
+        NdjsonRows(Reader reader) {
+            this.reader = reader instanceof BufferedReader buffered ? buffered : new BufferedReader(reader);
+        }
+
+        @Override
+        public NumberedRow next() throws IOException {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    return new NumberedRow(lineNumber, rowReader.readValue(line), null);
+                } catch (JsonProcessingException e) {
+                    return new NumberedRow(lineNumber, null, "Invalid JSON: " + e.getOriginalMessage());
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.ecom177.service;
+
+import com.ecom177.dto.ProductResponse;
+import com.ecom177.event.CategoryChangedEvent;
+import com.ecom177.event.ProductChangedEvent;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Bounded, size-aware LRU cache for {@code ProductService.searchProducts}.
+ * <p>
+ * Entries are tagged with the catalog generation they were computed under. Any product or
+ * category write bumps the generation, which invalidates every entry at once without walking
+ * the map; stale entries are dropped lazily when next touched or when evicted. A TTL bounds
+ * how long stock levels in cached results may lag behind checkouts.
+ */
+@Component
+public class ProductSearchCache {
+
+    private final long maxWeightBytes;
+    private final int maxEntries;
+    private final long ttlMs;
+    private final AtomicLong generation = new AtomicLong();
+    private final LinkedHashMap<Key, CachedResult> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long totalWeight;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder sizeEvictions = new LongAdder();
+    private final LongAdder staleEvictions = new LongAdder();
+
+    public ProductSearchCache(@Value("${app.search-cache.max-weight-mb:64}") long maxWeightMb,
+                              @Value("${app.search-cache.max-entries:10000}") int maxEntries,
+                              @Value("${app.search-cache.ttl-seconds:30}") long ttlSeconds,
+                              MeterRegistry meterRegistry) {
+        this.maxWeightBytes = maxWeightMb * 1024 * 1024;
+        this.maxEntries = maxEntries;
+        this.ttlMs = ttlSeconds * 1000;
+
+        FunctionCounter.builder("catalog.search.cache.requests", hits, LongAdder::sum)
+                .tag("result", "hit").register(meterRegistry);
+        FunctionCounter.builder("catalog.search.cache.requests", misses, LongAdder::sum)
+                .tag("result", "miss").register(meterRegistry);
+        FunctionCounter.builder("catalog.search.cache.evictions", sizeEvictions, LongAdder::sum)
+                .tag("cause", "size").register(meterRegistry);
+        FunctionCounter.builder("catalog.search.cache.evictions", staleEvictions, LongAdder::sum)
+                .tag("cause", "stale").register(meterRegistry);
+        Gauge.builder("catalog.search.cache.hit.ratio", this, ProductSearchCache::hitRatio)
+                .register(meterRegistry);
+        Gauge.builder("catalog.search.cache.size", this, ProductSearchCache::size)
+                .register(meterRegistry);
+        Gauge.builder("catalog.search.cache.weight", this, ProductSearchCache::weight)
+                .baseUnit("bytes").register(meterRegistry);
+        Gauge.builder("catalog.search.cache.generation", generation, AtomicLong::get)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Canonical form of a search: trimmed, case-folded name and sorted, de-duplicated category
+     * ids, so equivalent queries share one entry.
+     */
+    public static Key normalize(String name, List<Long> categoryIds) {
+        String normalizedName = name == null || name.isBlank() ? null : name.trim().toLowerCase(Locale.ROOT);
+        List<Long> normalizedIds = categoryIds == null ? null : categoryIds.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .sorted()
+                .toList();
+        return new Key(normalizedName, normalizedIds);
+    }
+
+    public List<ProductResponse> get(Key key, Supplier<List<ProductResponse>> loader) {
+        long currentGeneration = generation.get();
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            CachedResult cached = entries.get(key);
+            if (cached != null) {
+                if (cached.generation == currentGeneration && cached.expiresAt > now) {
+                    hits.increment();
+                    return cached.value;
+                }
+                remove(key, cached);
+                staleEvictions.increment();
+            }
+        }
+
+        misses.increment();
+        List<ProductResponse> value = loader.get();
+        long weight = estimateWeight(key, value);
+        if (weight <= maxWeightBytes / 4) {
+            synchronized (this) {
+                CachedResult previous = entries.put(key, new CachedResult(value, weight, currentGeneration, now + ttlMs));
+                if (previous != null) {
+                    totalWeight -= previous.weight;
+                }
+                totalWeight += weight;
+                evictIfNeeded();
+            }
+        }
+        return value;
+    }
+
+    @TransactionalEventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        generation.incrementAndGet();
+    }
+
+    @TransactionalEventListener
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        generation.incrementAndGet();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long weight() {
+        return totalWeight;
+    }
+
+    public double hitRatio() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? 0.0 : (double) h / total;
+    }
+
+    private void evictIfNeeded() {
+        Iterator<Map.Entry<Key, CachedResult>> eldest = entries.entrySet().iterator();
+        while ((totalWeight > maxWeightBytes || entries.size() > maxEntries) && eldest.hasNext()) {
+            Map.Entry<Key, CachedResult> entry = eldest.next();
+            totalWeight -= entry.getValue().weight;
+            eldest.remove();
+            sizeEvictions.increment();
+        }
+    }
+
+    private void remove(Key key, CachedResult cached) {
+        entries.remove(key);
+        totalWeight -= cached.weight;
+    }
+
+    // Rough retained size: object headers plus two bytes per character of every string field
+    private static long estimateWeight(Key key, List<ProductResponse> value) {
+        long weight = 128 + (key.name != null ? key.name.length() * 2L : 0)
+                + (key.categoryIds != null ? key.categoryIds.size() * 24L : 0);
+        for (ProductResponse product : value) {
+            weight += 160 + 2L * (length(product.getName()) + length(product.getDescription())
+                    + length(product.getCategoryName()) + length(product.getBase64Image()));
+        }
+        return weight;
+    }
+
+    private static int length(String value) {
+        return value != null ? value.length() : 0;
+    }
+
+    public static final class Key {
+        private final String name;
+        private final List<Long> categoryIds;
+        private final int hash;
+
+        private Key(String name, List<Long> categoryIds) {
+            this.name = name;
+            this.categoryIds = categoryIds;
+            this.hash = Objects.hash(name, categoryIds);
+        }
+
+        public String getName() { return name; }
+
+        public List<Long> getCategoryIds() { return categoryIds; }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key other)) return false;
+            return Objects.equals(name, other.name) && Objects.equals(categoryIds, other.categoryIds);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static final class CachedResult {
+        private final List<ProductResponse> value;
+        private final long weight;
+        private final long generation;
+        private final long expiresAt;
+
+        CachedResult(List<ProductResponse> value, long weight, long generation, long expiresAt) {
+            this.value = value;
+            this.weight = weight;
+            this.generation = generation;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
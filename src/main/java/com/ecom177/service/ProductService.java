@@ -4,12 +4,21 @@ import com.ecom177.dto.ProductRequest;
 import com.ecom177.dto.ProductResponse;
 import com.ecom177.entity.Category;
 import com.ecom177.entity.Product;
+import com.ecom177.event.ProductChangedEvent;
+import com.ecom177.exception.BadRequestException;
 import com.ecom177.exception.ResourceNotFoundException;
 import com.ecom177.repository.ProductRepository;
+import com.ecom177.util.Coalesced;
+import com.ecom177.util.FieldSelection;
+import com.ecom177.util.ServeStale;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -17,10 +26,25 @@ public class ProductService {
     
     private final ProductRepository productRepository;
     private final CategoryService categoryService;
+    private final TrendingService trendingService;
+    private final RelatedProductService relatedProductService;
+    private final SimilarProductService similarProductService;
+    private final ProductSearchCache searchCache;
+    private final ImageService imageService;
+    private final ApplicationEventPublisher eventPublisher;
     
-    public ProductService(ProductRepository productRepository, CategoryService categoryService) {
+    public ProductService(ProductRepository productRepository, CategoryService categoryService,
+                          TrendingService trendingService, RelatedProductService relatedProductService,
+                          SimilarProductService similarProductService, ProductSearchCache searchCache,
+                          ImageService imageService, ApplicationEventPublisher eventPublisher) {
         this.productRepository = productRepository;
         this.categoryService = categoryService;
+        this.trendingService = trendingService;
+        this.relatedProductService = relatedProductService;
+        this.similarProductService = similarProductService;
+        this.searchCache = searchCache;
+        this.imageService = imageService;
+        this.eventPublisher = eventPublisher;
     }
     
     @Transactional
@@ -34,18 +58,25 @@ public class ProductService {
         product.setStockQuantity(request.getStockQuantity());
         product.setCategory(category);
         product.setBase64Image(request.getBase64Image());
+        product.setImageId(requireImage(request.getImageId()));
         
         Product savedProduct = productRepository.save(product);
+        publishChanged(savedProduct, null);
         return convertToResponse(savedProduct);
     }
     
+    @ServeStale
+    @Coalesced
     @Transactional(readOnly = true)
-    public List<ProductResponse> getAllProducts() {
-        return productRepository.findAll().stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+    public List<ProductResponse> getAllProducts(FieldSelection fields) {
+        if (!fields.isAll()) {
+            return productRepository.findAllProjected(fields);
+        }
+        return convertToResponses(productRepository.findAll());
     }
     
+    @ServeStale
+    @Coalesced
     @Transactional(readOnly = true)
     public ProductResponse getProductById(Long id) {
         Product product = productRepository.findById(id)
@@ -53,12 +84,24 @@ public class ProductService {
         return convertToResponse(product);
     }
     
+    @ServeStale
+    @Transactional(readOnly = true)
+    public String getProductImageId(Long id) {
+        Product product = productRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id));
+        if (product.getImageId() == null) {
+            throw new ResourceNotFoundException("Product " + id + " has no image");
+        }
+        return product.getImageId();
+    }
+    
     @Transactional
     public ProductResponse updateProduct(Long id, ProductRequest request) {
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id));
         
         Category category = categoryService.findById(request.getCategoryId());
+        Long previousCategoryId = product.getCategory() != null ? product.getCategory().getId() : null;
         
         product.setName(request.getName());
         product.setDescription(request.getDescription());
@@ -66,27 +109,105 @@ public class ProductService {
         product.setStockQuantity(request.getStockQuantity());
         product.setCategory(category);
         product.setBase64Image(request.getBase64Image());
+        product.setImageId(requireImage(request.getImageId()));
         
         Product updatedProduct = productRepository.save(product);
+        publishChanged(updatedProduct, previousCategoryId);
         return convertToResponse(updatedProduct);
     }
     
     @Transactional
     public void deleteProduct(Long id) {
+        Product product = productRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id));
+        Long categoryId = product.getCategory() != null ? product.getCategory().getId() : null;
+        productRepository.delete(product);
+        eventPublisher.publishEvent(new ProductChangedEvent(id, null, null, null, categoryId, true));
+    }
+    
+    @ServeStale
+    @Coalesced
+    @Transactional(readOnly = true)
+    public List<ProductResponse> searchProducts(String name, List<Long> categoryIds) {
+        ProductSearchCache.Key key = ProductSearchCache.normalize(name, categoryIds);
+        // Run the query with the normalized values so a cached result is exactly what any
+        // equivalent spelling of the query would have returned
+        return searchCache.get(key, () -> convertToResponses(
+                productRepository.searchProducts(key.getName(), key.getCategoryIds())));
+    }
+    
+    @ServeStale
+    @Coalesced
+    @Transactional(readOnly = true)
+    public List<ProductResponse> getTrendingProducts(TrendingService.Window window, Long categoryId, int limit) {
+        return getProductsInOrder(trendingService.getTopProductIds(window, categoryId, limit));
+    }
+    
+    @ServeStale
+    @Coalesced
+    @Transactional(readOnly = true)
+    public List<ProductResponse> getRelatedProducts(Long id, int limit) {
         if (!productRepository.existsById(id)) {
             throw new ResourceNotFoundException("Product not found with id: " + id);
         }
-        productRepository.deleteById(id);
+        return getProductsInOrder(relatedProductService.getRelatedProductIds(id, limit));
     }
     
+    @ServeStale
+    @Coalesced
     @Transactional(readOnly = true)
-    public List<ProductResponse> searchProducts(String name, List<Long> categoryIds) {
-        return productRepository.searchProducts(name, categoryIds).stream()
-                .map(this::convertToResponse)
+    public List<ProductResponse> getSimilarProducts(Long id, int limit) {
+        if (!productRepository.existsById(id)) {
+            throw new ResourceNotFoundException("Product not found with id: " + id);
+        }
+        return getProductsInOrder(similarProductService.getSimilarProductIds(id, limit));
+    }
+    
+    private String requireImage(String imageId) {
+        if (imageId != null && !imageService.exists(imageId)) {
+            throw new BadRequestException("Image not found: " + imageId);
+        }
+        return imageId;
+    }
+    
+    private void publishChanged(Product product, Long previousCategoryId) {
+        eventPublisher.publishEvent(new ProductChangedEvent(
+                product.getId(),
+                product.getName(),
+                product.getDescription(),
+                product.getCategory() != null ? product.getCategory().getId() : null,
+                previousCategoryId,
+                false
+        ));
+    }
+    
+    // Loads the given products with one query, keeping the caller's ordering and skipping deleted ids
+    private List<ProductResponse> getProductsInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Product> products = productRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        return convertToResponses(ids.stream()
+                .map(products::get)
+                .filter(Objects::nonNull)
+                .toList());
+    }
+    
+    // Loads the lazy inline images with one query rather than one per product
+    private List<ProductResponse> convertToResponses(List<Product> products) {
+        Map<Long, String> images = productRepository.findInlineImages(
+                products.stream().map(Product::getId).toList());
+        return products.stream()
+                .map(product -> convertToResponse(product, images.get(product.getId())))
                 .collect(Collectors.toList());
     }
     
     private ProductResponse convertToResponse(Product product) {
+        return convertToResponse(product, product.getBase64Image());
+    }
+    
+    private ProductResponse convertToResponse(Product product, String base64Image) {
         return new ProductResponse(
                 product.getId(),
                 product.getName(),
@@ -95,7 +216,8 @@ public class ProductService {
                 product.getStockQuantity(),
                 product.getCategory() != null ? product.getCategory().getId() : null,
                 product.getCategory() != null ? product.getCategory().getName() : null,
-                product.getBase64Image()
+                base64Image,
+                ImageService.imageUrl(product.getImageId())
         );
     }
 }
\ No newline at end of file
@@ -0,0 +1,256 @@
+package com.ecom177.service;
+
+import com.ecom177.event.OrderPlacedEvent;
+import com.ecom177.event.ProductChangedEvent;
+import com.ecom177.repository.OrderItemRepository;
+import com.ecom177.util.LongIntHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Stream;
+
+/**
+ * "Customers also bought" recommendations from product co-occurrence counts.
+ * <p>
+ * Each product keeps a sparse primitive map of co-purchased products, pruned to its strongest
+ * candidates, plus a precomputed top-N array so reads never sort or hit the database. Counts
+ * are updated incrementally from committed orders and can be rebuilt from order history.
+ */
+@Service
+public class RelatedProductService {
+
+    private static final Logger log = LoggerFactory.getLogger(RelatedProductService.class);
+
+    private final OrderItemRepository orderItemRepository;
+    private final int neighbours;
+    private final int maxCandidates;
+    private final int maxItemsPerOrder;
+    private final boolean rebuildOnStartup;
+
+    private volatile ConcurrentMap<Long, Neighbours> graph = new ConcurrentHashMap<>();
+
+    // Guards graph swaps and pendingBaskets; rebuildLock serialises whole rebuilds
+    private final Object swapLock = new Object();
+    private final Object rebuildLock = new Object();
+    // Non-null while a rebuild streams history: baskets committed meanwhile, by order id, so the
+    // ones outside the rebuild's snapshot can be replayed into the rebuilt graph before the swap
+    private ConcurrentMap<Long, long[]> pendingBaskets;
+
+    public RelatedProductService(OrderItemRepository orderItemRepository,
+                                 @Value("${app.related.neighbours:20}") int neighbours,
+                                 @Value("${app.related.max-items-per-order:50}") int maxItemsPerOrder,
+                                 @Value("${app.related.rebuild-on-startup:true}") boolean rebuildOnStartup) {
+        this.orderItemRepository = orderItemRepository;
+        this.neighbours = neighbours;
+        this.maxCandidates = neighbours * 4;
+        this.maxItemsPerOrder = maxItemsPerOrder;
+        this.rebuildOnStartup = rebuildOnStartup;
+    }
+
+    @TransactionalEventListener
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        long[] productIds = event.getItems().stream()
+                .mapToLong(OrderPlacedEvent.Item::getProductId)
+                .distinct()
+                .toArray();
+        ConcurrentMap<Long, Neighbours> target;
+        synchronized (swapLock) {
+            target = graph;
+            if (pendingBaskets != null && event.getOrderId() != null) {
+                pendingBaskets.put(event.getOrderId(), productIds);
+            }
+        }
+        recordBasket(target, productIds, productIds.length);
+    }
+
+    public List<Long> getRelatedProductIds(long productId, int limit) {
+        Neighbours entry = graph.get(productId);
+        if (entry == null) {
+            return List.of();
+        }
+        long[] top = entry.top;
+        int n = Math.min(limit, top.length);
+        List<Long> result = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            result.add(top[i]);
+        }
+        return result;
+    }
+
+    @TransactionalEventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.isDeleted()) {
+            graph.remove(event.getProductId());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public void onApplicationReady() {
+        if (rebuildOnStartup) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Recomputes all co-occurrence counts from persisted order items and swaps them in
+     * atomically. Order items are streamed in order-id order so only one basket is held at a time.
+     * Orders committed while the rebuild runs keep updating the live graph and are replayed
+     * into the rebuilt one unless its snapshot already holds them, so none are lost or counted
+     * twice by the swap. An order's listener can run long after its commit, so membership is
+     * asked of the snapshot rather than inferred from the stream; repeatable read keeps the
+     * stream and those lookups on one snapshot.
+     */
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public int rebuild() {
+        synchronized (rebuildLock) {
+            ConcurrentMap<Long, long[]> pending = new ConcurrentHashMap<>();
+            synchronized (swapLock) {
+                pendingBaskets = pending;
+            }
+            try {
+                return rebuildGraph(pending);
+            } finally {
+                synchronized (swapLock) {
+                    pendingBaskets = null;
+                }
+            }
+        }
+    }
+
+    private int rebuildGraph(ConcurrentMap<Long, long[]> pending) {
+        ConcurrentMap<Long, Neighbours> rebuilt = new ConcurrentHashMap<>();
+        long[] basket = new long[maxItemsPerOrder];
+        int size = 0;
+        long currentOrder = Long.MIN_VALUE;
+        int orders = 0;
+
+        try (Stream<Object[]> pairs = orderItemRepository.streamOrderProductPairs()) {
+            for (Object[] pair : (Iterable<Object[]>) pairs::iterator) {
+                long orderId = (Long) pair[0];
+                long productId = (Long) pair[1];
+                if (orderId != currentOrder) {
+                    if (size > 0) {
+                        recordBasket(rebuilt, basket, size);
+                        orders++;
+                    }
+                    currentOrder = orderId;
+                    size = 0;
+                }
+                if (size < basket.length && !contains(basket, size, productId)) {
+                    basket[size++] = productId;
+                }
+            }
+        }
+        if (size > 0) {
+            recordBasket(rebuilt, basket, size);
+            orders++;
+        }
+
+        // Most queued orders are checked without blocking new ones; the few queued during that
+        // lookup are checked under the lock, so none can slip in between check and swap
+        Set<Long> checked = new HashSet<>(pending.keySet());
+        Set<Long> inSnapshot = new HashSet<>(findInSnapshot(checked));
+        synchronized (swapLock) {
+            Set<Long> late = new HashSet<>(pending.keySet());
+            late.removeAll(checked);
+            inSnapshot.addAll(findInSnapshot(late));
+            int replayed = 0;
+            for (Map.Entry<Long, long[]> queued : pending.entrySet()) {
+                if (!inSnapshot.contains(queued.getKey())) {
+                    recordBasket(rebuilt, queued.getValue(), queued.getValue().length);
+                    replayed++;
+                }
+            }
+            graph = rebuilt;
+            pendingBaskets = null;
+            orders += replayed;
+        }
+        log.info("Rebuilt related-product graph from {} orders ({} products)", orders, rebuilt.size());
+        return orders;
+    }
+
+    private List<Long> findInSnapshot(Set<Long> orderIds) {
+        return orderIds.isEmpty() ? List.of() : orderItemRepository.findOrderIdsIn(orderIds);
+    }
+
+    private void recordBasket(ConcurrentMap<Long, Neighbours> target, long[] productIds, int size) {
+        int n = Math.min(size, maxItemsPerOrder);
+        for (int i = 0; i < n; i++) {
+            Neighbours entry = target.computeIfAbsent(productIds[i], id -> new Neighbours());
+            entry.record(productIds, n, i);
+        }
+    }
+
+    private static boolean contains(long[] values, int size, long value) {
+        for (int i = 0; i < size; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private class Neighbours {
+        private LongIntHashMap counts = new LongIntHashMap();
+        private volatile long[] top = new long[0];
+
+        synchronized void record(long[] basket, int size, int self) {
+            for (int j = 0; j < size; j++) {
+                if (j != self) {
+                    counts.addTo(basket[j], 1);
+                }
+            }
+            if (counts.size() > maxCandidates) {
+                counts = retainStrongest(maxCandidates / 2);
+            }
+            top = strongest(neighbours);
+        }
+
+        private LongIntHashMap retainStrongest(int keep) {
+            long[] ranked = strongest(keep);
+            LongIntHashMap retained = new LongIntHashMap(keep);
+            for (long id : ranked) {
+                retained.addTo(id, counts.get(id));
+            }
+            return retained;
+        }
+
+        private long[] strongest(int limit) {
+            long[] ids = new long[counts.size()];
+            int[] weights = new int[counts.size()];
+            int[] cursor = {0};
+            counts.forEach((id, count) -> {
+                ids[cursor[0]] = id;
+                weights[cursor[0]++] = count;
+            });
+            Integer[] order = new Integer[ids.length];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> weights[a] != weights[b]
+                    ? Integer.compare(weights[b], weights[a])
+                    : Long.compare(ids[a], ids[b]));
+            long[] result = new long[Math.min(limit, ids.length)];
+            for (int i = 0; i < result.length; i++) {
+                result[i] = ids[order[i]];
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.ecom177.service;
+
+import com.ecom177.event.ProductChangedEvent;
+import com.ecom177.repository.ProductRepository;
+import com.ecom177.util.HnswIndex;
+import com.ecom177.util.TextVectorizer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+/**
+ * "Similar items" based on product text alone, so products without any order history still get
+ * recommendations. Name and description are hashed into vectors and indexed in an HNSW graph
+ * that is kept in sync with product writes.
+ * <p>
+ * Product writes are applied to the live index in place. Replacing the index, by a full rebuild
+ * or by compacting away tombstones on a background thread, records the writes that arrive
+ * meanwhile and replays them onto the replacement before it is swapped in, so none are lost.
+ */
+@Service
+public class SimilarProductService {
+
+    private static final Logger log = LoggerFactory.getLogger(SimilarProductService.class);
+
+    private static final float NAME_WEIGHT = 2.0f;
+
+    private final ProductRepository productRepository;
+    private final TextVectorizer vectorizer;
+    private final int m;
+    private final int efConstruction;
+    private final int efSearch;
+
+    private final Object swapLock = new Object();
+    private final Object replaceLock = new Object();
+    private final ExecutorService compactionExecutor;
+    private final AtomicBoolean compactionPending = new AtomicBoolean();
+
+    private volatile HnswIndex index;
+    // Writes applied since a replacement index started building; null when none is; guarded by swapLock
+    private List<Change> pendingChanges;
+
+    public SimilarProductService(ProductRepository productRepository,
+                                 @Value("${app.similar.dimension:256}") int dimension,
+                                 @Value("${app.similar.m:16}") int m,
+                                 @Value("${app.similar.ef-construction:100}") int efConstruction,
+                                 @Value("${app.similar.ef-search:64}") int efSearch) {
+        this.productRepository = productRepository;
+        this.vectorizer = new TextVectorizer(dimension);
+        this.m = m;
+        this.efConstruction = efConstruction;
+        this.efSearch = efSearch;
+        this.index = new HnswIndex(dimension, m, efConstruction);
+        this.compactionExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "similar-compaction");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        HnswIndex rebuilt = replaceIndex(ignored -> {
+            HnswIndex fresh = new HnswIndex(vectorizer.getDimension(), m, efConstruction);
+            for (Object[] row : productRepository.findAllTextFields()) {
+                fresh.add((Long) row[0], vectorizer.vectorize((String) row[1], NAME_WEIGHT, (String) row[2]));
+            }
+            return fresh;
+        });
+        log.info("Built similar-product index with {} products", rebuilt.size());
+    }
+
+    @TransactionalEventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        Change change = event.isDeleted()
+                ? new Change(event.getProductId(), null)
+                : new Change(event.getProductId(), vectorizer.vectorize(event.getName(), NAME_WEIGHT, event.getDescription()));
+        HnswIndex current;
+        synchronized (swapLock) {
+            current = index;
+            change.applyTo(current);
+            if (pendingChanges != null) {
+                pendingChanges.add(change);
+            }
+        }
+        if (current.needsCompaction()) {
+            scheduleCompaction();
+        }
+    }
+
+    // A burst of writes (e.g. a bulk import) queues at most one compaction; a write that crosses
+    // the threshold while one is running queues exactly one more.
+    private void scheduleCompaction() {
+        if (compactionPending.compareAndSet(false, true)) {
+            compactionExecutor.execute(() -> {
+                compactionPending.set(false);
+                try {
+                    if (index.needsCompaction()) {
+                        HnswIndex compacted = replaceIndex(HnswIndex::compact);
+                        log.debug("Compacted similar-product index to {} products", compacted.size());
+                    }
+                } catch (RuntimeException e) {
+                    log.warn("Similar-product index compaction failed", e);
+                }
+            });
+        }
+    }
+
+    /**
+     * Builds a replacement from the current index and swaps it in. Writes applied to the current
+     * index while the replacement builds are replayed onto it under the swap lock, so the swap
+     * loses none of them. Replacements run one at a time.
+     */
+    private HnswIndex replaceIndex(UnaryOperator<HnswIndex> builder) {
+        synchronized (replaceLock) {
+            HnswIndex source;
+            synchronized (swapLock) {
+                source = index;
+                pendingChanges = new ArrayList<>();
+            }
+            try {
+                HnswIndex replacement = builder.apply(source);
+                synchronized (swapLock) {
+                    for (Change change : pendingChanges) {
+                        change.applyTo(replacement);
+                    }
+                    index = replacement;
+                }
+                return replacement;
+            } finally {
+                synchronized (swapLock) {
+                    pendingChanges = null;
+                }
+            }
+        }
+    }
+
+    public List<Long> getSimilarProductIds(long productId, int limit) {
+        HnswIndex current = index;
+        float[] vector = current.getVector(productId);
+        if (vector == null) {
+            return List.of();
+        }
+        return current.search(vector, limit, efSearch, productId).stream()
+                .map(HnswIndex.Result::getKey)
+                .collect(Collectors.toList());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        compactionExecutor.shutdownNow();
+    }
+
+    /** A product write; {@code vector} is null for a deletion. */
+    private record Change(long productId, float[] vector) {
+
+        void applyTo(HnswIndex target) {
+            if (vector == null) {
+                target.remove(productId);
+            } else {
+                target.add(productId, vector);
+            }
+        }
+    }
+}
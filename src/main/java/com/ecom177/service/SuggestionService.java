@@ -0,0 +1,138 @@
+package com.ecom177.service;
+
+import com.ecom177.dto.SuggestionResponse;
+import com.ecom177.event.CategoryChangedEvent;
+import com.ecom177.event.ProductChangedEvent;
+import com.ecom177.repository.CategoryRepository;
+import com.ecom177.repository.ProductRepository;
+import com.ecom177.util.PrefixSuggester;
+import com.ecom177.util.TopKTracker;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Typeahead over product and category names. Lookups only read an immutable
+ * {@link PrefixSuggester}; catalog writes schedule a debounced background rebuild that swaps in
+ * a new one atomically.
+ */
+@Service
+public class SuggestionService {
+
+    private static final Logger log = LoggerFactory.getLogger(SuggestionService.class);
+
+    private static final String PRODUCT = "PRODUCT";
+    private static final String CATEGORY = "CATEGORY";
+
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+    private final TrendingService trendingService;
+    private final int maxResults;
+    private final long rebuildDelayMs;
+    private final long refreshIntervalMinutes;
+    private final ScheduledExecutorService rebuildExecutor;
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
+
+    private volatile PrefixSuggester suggester = PrefixSuggester.empty();
+
+    public SuggestionService(ProductRepository productRepository, CategoryRepository categoryRepository,
+                             TrendingService trendingService,
+                             @Value("${app.suggest.max-results:10}") int maxResults,
+                             @Value("${app.suggest.rebuild-delay-ms:500}") long rebuildDelayMs,
+                             @Value("${app.suggest.refresh-interval-minutes:15}") long refreshIntervalMinutes) {
+        this.productRepository = productRepository;
+        this.categoryRepository = categoryRepository;
+        this.trendingService = trendingService;
+        this.maxResults = maxResults;
+        this.rebuildDelayMs = rebuildDelayMs;
+        this.refreshIntervalMinutes = refreshIntervalMinutes;
+        this.rebuildExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "suggest-rebuild");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public List<SuggestionResponse> suggest(String query, int limit) {
+        return suggester.suggest(query, Math.min(limit, maxResults)).stream()
+                .map(entry -> new SuggestionResponse(entry.getText(), entry.getType(), entry.getId()))
+                .collect(Collectors.toList());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        scheduleRebuild();
+        // Periodic refresh picks up popularity drift even when the catalog itself is quiet
+        rebuildExecutor.scheduleWithFixedDelay(this::scheduleRebuild,
+                refreshIntervalMinutes, refreshIntervalMinutes, TimeUnit.MINUTES);
+    }
+
+    @TransactionalEventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        scheduleRebuild();
+    }
+
+    @TransactionalEventListener
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        scheduleRebuild();
+    }
+
+    // Bursts of writes collapse into a single rebuild; a write that lands while a rebuild is
+    // running schedules exactly one more.
+    public void scheduleRebuild() {
+        if (rebuildPending.compareAndSet(false, true)) {
+            rebuildExecutor.schedule(() -> {
+                rebuildPending.set(false);
+                try {
+                    rebuild();
+                } catch (RuntimeException e) {
+                    log.warn("Suggestion index rebuild failed", e);
+                }
+            }, rebuildDelayMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void rebuild() {
+        Map<Long, Double> popularity = new HashMap<>();
+        for (TopKTracker.Entry entry : trendingService.getTopProducts(TrendingService.Window.BEST_SELLERS, null, Integer.MAX_VALUE)) {
+            popularity.put(entry.getKey(), entry.getCount());
+        }
+
+        List<PrefixSuggester.Entry> entries = new ArrayList<>();
+        for (Object[] row : productRepository.findAllNames()) {
+            Long id = (Long) row[0];
+            entries.add(new PrefixSuggester.Entry((String) row[1], PRODUCT, id, 1.0 + popularity.getOrDefault(id, 0.0)));
+        }
+        Map<Long, Long> productCounts = new HashMap<>();
+        for (Object[] row : productRepository.countByCategory()) {
+            productCounts.put((Long) row[0], (Long) row[1]);
+        }
+        for (Object[] row : categoryRepository.findAllNames()) {
+            Long id = (Long) row[0];
+            entries.add(new PrefixSuggester.Entry((String) row[1], CATEGORY, id, 1.0 + productCounts.getOrDefault(id, 0L)));
+        }
+
+        suggester = PrefixSuggester.build(entries, maxResults);
+        log.debug("Rebuilt suggestion index with {} entries", entries.size());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuildExecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,171 @@
+package com.ecom177.service;
+
+import com.ecom177.entity.RevokedToken;
+import com.ecom177.entity.User;
+import com.ecom177.repository.RefreshTokenRepository;
+import com.ecom177.repository.RevokedTokenRepository;
+import com.ecom177.repository.UserRepository;
+import com.ecom177.util.BloomFilter;
+import com.ecom177.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Revocation list for access tokens, keyed by their {@code jti}.
+ * <p>
+ * Every authenticated request asks {@link #isRevoked(String)}. Nearly all tokens are not
+ * revoked, so the answer comes from an in-memory Bloom filter without touching the database;
+ * only a filter hit (a real revocation or a rare false positive) is confirmed against
+ * {@code revoked_tokens}. The filter is rebuilt periodically from that table, which also picks
+ * up revocations made on other nodes and forgets rows whose tokens have expired.
+ * <p>
+ * Revoking all of a user's sessions cannot list their outstanding {@code jti}s, so it stores a
+ * cutoff on the user instead: tokens issued at or before it are rejected. Cutoffs younger than
+ * the access-token lifetime are held in memory and refreshed with the filter.
+ */
+@Service
+public class TokenRevocationService {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final UserRepository userRepository;
+    private final int expectedInsertions;
+    private final double falsePositiveRate;
+    private final long accessTokenLifetimeMs;
+    // User id -> epoch second of the latest "revoke all sessions"
+    private final Map<Long, Long> tokenCutoffs = new ConcurrentHashMap<>();
+
+    private volatile BloomFilter filter;
+    // Non-null while a rebuild is running, so revocations made meanwhile land in both filters
+    private volatile BloomFilter pending;
+
+    public TokenRevocationService(RevokedTokenRepository revokedTokenRepository,
+                                  RefreshTokenRepository refreshTokenRepository,
+                                  UserRepository userRepository,
+                                  @Value("${app.jwt.revocation.expected-insertions:100000}") int expectedInsertions,
+                                  @Value("${app.jwt.revocation.false-positive-rate:0.001}") double falsePositiveRate,
+                                  @Value("${app.jwt.expiration-ms}") long accessTokenLifetimeMs) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.userRepository = userRepository;
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+        this.accessTokenLifetimeMs = accessTokenLifetimeMs;
+        this.filter = new BloomFilter(expectedInsertions, falsePositiveRate);
+    }
+
+    public boolean isRevoked(String tokenId) {
+        if (!filter.mightContain(tokenId)) {
+            return false;
+        }
+        return revokedTokenRepository.existsById(tokenId);
+    }
+
+    /** Whether the token was revoked by its id or by a cutoff on its user. */
+    public boolean isRevoked(Claims claims) {
+        if (claims.getId() != null && isRevoked(claims.getId())) {
+            return true;
+        }
+        Long userId = claims.get(JwtUtil.CLAIM_USER_ID, Long.class);
+        Long cutoff = userId != null ? tokenCutoffs.get(userId) : null;
+        // iat has whole-second precision, so a token from the cutoff's own second is rejected too
+        return cutoff != null && claims.getIssuedAt() != null && claims.getIssuedAt().getTime() / 1000 <= cutoff;
+    }
+
+    @Transactional
+    public void revoke(String tokenId, Date expiresAt) {
+        LocalDateTime expiry = LocalDateTime.ofInstant(expiresAt.toInstant(), ZoneId.systemDefault());
+        revokedTokenRepository.save(new RevokedToken(tokenId, expiry));
+        addToFilters(tokenId);
+        // A rebuild that reads the table before this commits builds a filter without the id;
+        // adding it again once committed reaches that filter whether or not it is swapped in yet
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    addToFilters(tokenId);
+                }
+            });
+        }
+    }
+
+    // Reads pending first: if no rebuild is running then, any later one reads the committed row
+    private void addToFilters(String tokenId) {
+        BloomFilter rebuilding = pending;
+        filter.add(tokenId);
+        if (rebuilding != null) {
+            rebuilding.add(tokenId);
+        }
+    }
+
+    /** Rejects every access token issued to {@code user} up to now. */
+    @Transactional
+    public void revokeAllForUser(User user) {
+        LocalDateTime now = LocalDateTime.now();
+        user.setTokensNotBefore(now);
+        userRepository.save(user);
+        tokenCutoffs.merge(user.getId(), toEpochSecond(now), Math::max);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${app.jwt.revocation.rebuild-interval-ms:60000}",
+               initialDelayString = "${app.jwt.revocation.rebuild-interval-ms:60000}")
+    @Transactional
+    public void rebuild() {
+        LocalDateTime now = LocalDateTime.now();
+        int purged = revokedTokenRepository.deleteExpired(now);
+        int purgedRefresh = refreshTokenRepository.deleteExpired(now);
+
+        long existing = revokedTokenRepository.count();
+        BloomFilter rebuilt = new BloomFilter((int) Math.max(expectedInsertions, existing * 2), falsePositiveRate);
+        pending = rebuilt;
+        List<String> active;
+        try {
+            active = revokedTokenRepository.findActiveIds(now);
+            for (String tokenId : active) {
+                rebuilt.add(tokenId);
+            }
+            filter = rebuilt;
+        } finally {
+            pending = null;
+        }
+
+        // Older cutoffs predate every token that has not expired yet
+        LocalDateTime since = now.minusNanos(accessTokenLifetimeMs * 1_000_000L);
+        for (Object[] row : userRepository.findTokenCutoffsSince(since)) {
+            tokenCutoffs.merge((Long) row[0], toEpochSecond((LocalDateTime) row[1]), Math::max);
+        }
+        long sinceSecond = toEpochSecond(since);
+        tokenCutoffs.values().removeIf(cutoff -> cutoff < sinceSecond);
+
+        log.debug("Rebuilt token revocation filter with {} entries and {} user cutoffs (purged {} revoked, {} refresh tokens)",
+                active.size(), tokenCutoffs.size(), purged, purgedRefresh);
+    }
+
+    private static long toEpochSecond(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toEpochSecond();
+    }
+}
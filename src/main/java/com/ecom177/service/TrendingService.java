@@ -0,0 +1,100 @@
+package com.ecom177.service;
+
+import com.ecom177.event.OrderPlacedEvent;
+import com.ecom177.event.ProductChangedEvent;
+import com.ecom177.util.TopKTracker;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps streaming "trending" and "best seller" rankings, globally and per category, from
+ * committed orders. Nothing here touches the database; memory is bounded by
+ * {@code app.trending.capacity} monitored products per ranking.
+ */
+@Service
+public class TrendingService {
+
+    public enum Window {
+        TRENDING, BEST_SELLERS
+    }
+
+    private final int capacity;
+    private final long trendingHalfLifeMs;
+    private final long bestSellersHalfLifeMs;
+    private final Rankings global;
+    private final ConcurrentMap<Long, Rankings> byCategory = new ConcurrentHashMap<>();
+
+    public TrendingService(@Value("${app.trending.capacity:200}") int capacity,
+                           @Value("${app.trending.trending-half-life-minutes:60}") long trendingHalfLifeMinutes,
+                           @Value("${app.trending.best-sellers-half-life-hours:168}") long bestSellersHalfLifeHours) {
+        this.capacity = capacity;
+        this.trendingHalfLifeMs = trendingHalfLifeMinutes * 60_000L;
+        this.bestSellersHalfLifeMs = bestSellersHalfLifeHours * 3_600_000L;
+        this.global = new Rankings(System.currentTimeMillis());
+    }
+
+    @TransactionalEventListener
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        long now = System.currentTimeMillis();
+        for (OrderPlacedEvent.Item item : event.getItems()) {
+            global.record(item.getProductId(), item.getQuantity(), now);
+            if (item.getCategoryId() != null) {
+                byCategory.computeIfAbsent(item.getCategoryId(), id -> new Rankings(now))
+                        .record(item.getProductId(), item.getQuantity(), now);
+            }
+        }
+    }
+
+    public List<Long> getTopProductIds(Window window, Long categoryId, int limit) {
+        return getTopProducts(window, categoryId, limit).stream()
+                .map(TopKTracker.Entry::getKey)
+                .collect(Collectors.toList());
+    }
+    
+    public List<TopKTracker.Entry> getTopProducts(Window window, Long categoryId, int limit) {
+        Rankings rankings = categoryId == null ? global : byCategory.get(categoryId);
+        if (rankings == null) {
+            return List.of();
+        }
+        return rankings.get(window).top(limit, System.currentTimeMillis());
+    }
+
+    @TransactionalEventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.isDeleted()) {
+            long productId = event.getProductId();
+            global.remove(productId);
+            byCategory.values().forEach(rankings -> rankings.remove(productId));
+        }
+    }
+
+    private class Rankings {
+        private final TopKTracker trending;
+        private final TopKTracker bestSellers;
+
+        Rankings(long now) {
+            this.trending = new TopKTracker(capacity, trendingHalfLifeMs, now);
+            this.bestSellers = new TopKTracker(capacity, bestSellersHalfLifeMs, now);
+        }
+
+        void record(long productId, int quantity, long now) {
+            trending.add(productId, quantity, now);
+            bestSellers.add(productId, quantity, now);
+        }
+
+        void remove(long productId) {
+            trending.remove(productId);
+            bestSellers.remove(productId);
+        }
+
+        TopKTracker get(Window window) {
+            return window == Window.TRENDING ? trending : bestSellers;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.ecom177.service;
+
+import com.ecom177.entity.User;
+import com.ecom177.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Short-lived cache of {@link User} entities by username for the few paths that need more than
+ * the JWT principal (e.g. attaching the user to a new order). Returned entities are detached;
+ * writers must call {@link #evict(String)} after changing a user.
+ */
+@Component
+public class UserCache {
+
+    private final UserRepository userRepository;
+    private final long ttlMs;
+    private final Map<String, CachedUser> users;
+
+    public UserCache(UserRepository userRepository,
+                     @Value("${app.user-cache.ttl-seconds:60}") long ttlSeconds,
+                     @Value("${app.user-cache.max-entries:10000}") int maxEntries) {
+        this.userRepository = userRepository;
+        this.ttlMs = ttlSeconds * 1000;
+        this.users = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedUser> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public Optional<User> findByUsername(String username) {
+        long now = System.currentTimeMillis();
+        synchronized (users) {
+            CachedUser cached = users.get(username);
+            if (cached != null && cached.expiresAt > now) {
+                return Optional.of(cached.user);
+            }
+        }
+        Optional<User> user = userRepository.findByUsername(username);
+        user.ifPresent(found -> {
+            synchronized (users) {
+                users.put(username, new CachedUser(found, now + ttlMs));
+            }
+        });
+        return user;
+    }
+
+    public void evict(String username) {
+        synchronized (users) {
+            users.remove(username);
+        }
+    }
+
+    private static final class CachedUser {
+        private final User user;
+        private final long expiresAt;
+
+        CachedUser(User user, long expiresAt) {
+            this.user = user;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
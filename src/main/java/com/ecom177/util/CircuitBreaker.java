@@ -0,0 +1,144 @@
+package com.ecom177.util;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Count-based circuit breaker.
+ * <p>
+ * CLOSED lets every call through and opens after {@code failureThreshold} consecutive failures.
+ * OPEN refuses every call for {@code openDurationMs}, then moves to HALF_OPEN, which lets at most
+ * {@code halfOpenProbes} calls through at a time: one failure reopens the circuit, and
+ * {@code halfOpenProbes} successes in a row close it.
+ * <p>
+ * Every permitted call must be followed by exactly one {@link #onSuccess(Permit)} or
+ * {@link #onFailure(Permit)} with the permit it was given. A call only counts in the state it
+ * was admitted in: one admitted while CLOSED that ends after the circuit opened is ignored, and
+ * only probes admitted in the current HALF_OPEN period can close or reopen the circuit.
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        HALF_OPEN,
+        OPEN
+    }
+
+    /** Issued by {@link #tryAcquire()} for each permitted call. */
+    public static final class Permit {
+        private final long period;
+        private final boolean probe;
+
+        private Permit(long period, boolean probe) {
+            this.period = period;
+            this.probe = probe;
+        }
+
+        /** Whether the call was let through as a HALF_OPEN probe. */
+        public boolean isProbe() {
+            return probe;
+        }
+    }
+
+    /** Called with the lock held; must be quick and must not call back into the breaker. */
+    public interface TransitionListener {
+        void onTransition(State from, State to);
+    }
+
+    private final int failureThreshold;
+    private final long openDurationNanos;
+    private final int halfOpenProbes;
+    private final TransitionListener listener;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private int probesInFlight;
+    private int probeSuccesses;
+    private long openedAt;
+    // Bumped on every transition, so a permit from an earlier state is recognised as stale
+    private long period;
+
+    public CircuitBreaker(int failureThreshold, long openDurationMs, int halfOpenProbes, TransitionListener listener) {
+        if (failureThreshold < 1 || openDurationMs < 1 || halfOpenProbes < 1) {
+            throw new IllegalArgumentException("failureThreshold, openDurationMs and halfOpenProbes must be positive");
+        }
+        this.failureThreshold = failureThreshold;
+        this.openDurationNanos = TimeUnit.MILLISECONDS.toNanos(openDurationMs);
+        this.halfOpenProbes = halfOpenProbes;
+        this.listener = listener;
+    }
+
+    /** Returns a permit if the call may proceed, or null if it is refused. Never blocks. */
+    public synchronized Permit tryAcquire() {
+        if (state == State.OPEN) {
+            if (System.nanoTime() - openedAt < openDurationNanos) {
+                return null;
+            }
+            transition(State.HALF_OPEN);
+            probesInFlight = 0;
+            probeSuccesses = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (probesInFlight >= halfOpenProbes) {
+                return null;
+            }
+            probesInFlight++;
+            return new Permit(period, true);
+        }
+        return new Permit(period, false);
+    }
+
+    public synchronized void onSuccess(Permit permit) {
+        if (permit.period != period) {
+            return;
+        }
+        if (state == State.HALF_OPEN && permit.probe) {
+            probesInFlight--;
+            if (++probeSuccesses >= halfOpenProbes) {
+                consecutiveFailures = 0;
+                transition(State.CLOSED);
+            }
+        } else if (state == State.CLOSED) {
+            consecutiveFailures = 0;
+        }
+    }
+
+    public synchronized void onFailure(Permit permit) {
+        if (permit.period != period) {
+            return;
+        }
+        if (state == State.HALF_OPEN && permit.probe) {
+            probesInFlight--;
+            open();
+        } else if (state == State.CLOSED && ++consecutiveFailures >= failureThreshold) {
+            open();
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    /** Milliseconds until an open circuit lets a probe through; 0 unless OPEN. */
+    public synchronized long remainingOpenMillis() {
+        if (state != State.OPEN) {
+            return 0;
+        }
+        return Math.max(0, TimeUnit.NANOSECONDS.toMillis(openDurationNanos - (System.nanoTime() - openedAt)));
+    }
+
+    private void open() {
+        openedAt = System.nanoTime();
+        transition(State.OPEN);
+    }
+
+    private void transition(State to) {
+        State from = state;
+        state = to;
+        if (from != to) {
+            period++;
+            if (listener != null) {
+                listener.onTransition(from, to);
+            }
+        }
+    }
+}
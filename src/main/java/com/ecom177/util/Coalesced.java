@@ -0,0 +1,18 @@
+package com.ecom177.util;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Concurrent calls to the annotated method with equal arguments share one execution (see
+ * {@link SingleFlight}). Only for reads whose result does not depend on the caller, and whose
+ * arguments implement {@code equals}/{@code hashCode}.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Coalesced {
+}
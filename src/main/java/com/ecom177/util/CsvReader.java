@@ -0,0 +1,98 @@
+package com.ecom177.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minimal streaming RFC 4180 reader: comma-separated fields, optional double quotes, {@code ""}
+ * as an escaped quote, and line breaks inside quoted fields. Reads one record at a time, so
+ * input of any size is parsed in constant memory (apart from the current record).
+ */
+public class CsvReader {
+
+    private static final int MAX_FIELD_LENGTH = 1 << 20;
+
+    private final Reader reader;
+    private final StringBuilder field = new StringBuilder();
+    private long recordNumber;
+    private boolean eof;
+
+    public CsvReader(Reader reader) {
+        this.reader = reader instanceof BufferedReader ? reader : new BufferedReader(reader);
+    }
+
+    /** Returns the next record, or {@code null} at end of input. Blank lines are skipped. */
+    public List<String> readRecord() throws IOException {
+        while (!eof) {
+            List<String> record = parseRecord();
+            if (record != null && !(record.size() == 1 && record.get(0).isEmpty())) {
+                recordNumber++;
+                return record;
+            }
+        }
+        return null;
+    }
+
+    /** 1-based number of the record last returned by {@link #readRecord()}, header included. */
+    public long getRecordNumber() {
+        return recordNumber;
+    }
+
+    private List<String> parseRecord() throws IOException {
+        List<String> record = new ArrayList<>();
+        field.setLength(0);
+        boolean quoted = false;
+        boolean fieldStarted = false;
+        int c;
+        while ((c = reader.read()) != -1) {
+            if (quoted) {
+                if (c == '"') {
+                    reader.mark(1);
+                    int next = reader.read();
+                    if (next == '"') {
+                        append('"');
+                    } else {
+                        quoted = false;
+                        if (next != -1) {
+                            reader.reset();
+                        }
+                    }
+                } else {
+                    append((char) c);
+                }
+            } else if (c == '"' && !fieldStarted) {
+                quoted = true;
+                fieldStarted = true;
+            } else if (c == ',') {
+                record.add(field.toString());
+                field.setLength(0);
+                fieldStarted = false;
+            } else if (c == '\n') {
+                record.add(field.toString());
+                return record;
+            } else if (c != '\r') {
+                append((char) c);
+                fieldStarted = true;
+            }
+        }
+        eof = true;
+        if (quoted) {
+            throw new IOException("Unterminated quoted field in CSV record " + (recordNumber + 1));
+        }
+        if (record.isEmpty() && field.isEmpty()) {
+            return null;
+        }
+        record.add(field.toString());
+        return record;
+    }
+
+    private void append(char c) throws IOException {
+        if (field.length() >= MAX_FIELD_LENGTH) {
+            throw new IOException("CSV field exceeds " + MAX_FIELD_LENGTH + " characters in record " + (recordNumber + 1));
+        }
+        field.append(c);
+    }
+}
@@ -0,0 +1,93 @@
+package com.ecom177.util;
+
+import com.ecom177.exception.BadRequestException;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.http.converter.json.MappingJacksonValue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * A validated {@code fields=} parameter (comma-separated property names). Repositories use it
+ * to select only the matching columns, and {@link #apply} limits what Jackson writes for DTOs
+ * annotated with {@code @JsonFilter(FieldSelection.FILTER_ID)}. {@code id} is always included.
+ */
+public final class FieldSelection {
+
+    public static final String FILTER_ID = "fieldSelection";
+
+    private static final FieldSelection ALL = new FieldSelection(null);
+
+    // null means every field
+    private final Set<String> fields;
+
+    private FieldSelection(Set<String> fields) {
+        this.fields = fields;
+    }
+
+    public static FieldSelection all() {
+        return ALL;
+    }
+
+    /** Parses {@code parameter} against {@code allowed}; a missing or blank parameter selects everything. */
+    public static FieldSelection parse(String parameter, List<String> allowed) {
+        if (parameter == null || parameter.isBlank()) {
+            return ALL;
+        }
+        Set<String> fields = new LinkedHashSet<>();
+        fields.add("id");
+        for (String field : parameter.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!allowed.contains(name)) {
+                throw new BadRequestException("Unknown field '" + name + "'; allowed fields: " + String.join(", ", allowed));
+            }
+            fields.add(name);
+        }
+        return new FieldSelection(Collections.unmodifiableSet(fields));
+    }
+
+    public boolean isAll() {
+        return fields == null;
+    }
+
+    public boolean includes(String field) {
+        return fields == null || fields.contains(field);
+    }
+
+    public boolean includesAny(String... candidates) {
+        return Arrays.stream(candidates).anyMatch(this::includes);
+    }
+
+    /** Only meaningful when {@link #isAll()} is false. */
+    public Set<String> getFields() {
+        return fields;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof FieldSelection other && Objects.equals(fields, other.fields);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(fields);
+    }
+
+    /** Wraps a response body so that only the selected properties are serialized. */
+    public MappingJacksonValue apply(Object body) {
+        MappingJacksonValue value = new MappingJacksonValue(body);
+        if (fields != null) {
+            value.setFilters(new SimpleFilterProvider()
+                    .addFilter(FILTER_ID, SimpleBeanPropertyFilter.filterOutAllExcept(fields)));
+        }
+        return value;
+    }
+}
@@ -0,0 +1,389 @@
+package com.ecom177.util;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process approximate nearest-neighbour index (Hierarchical Navigable Small World graph)
+ * over L2-normalised vectors, using cosine distance.
+ * <p>
+ * Searches run concurrently under a read lock; inserts take the write lock. Updating a key
+ * tombstones its old node and inserts a fresh one. Tombstoned nodes still route searches but
+ * are never returned; callers should {@link #compact()} once {@link #needsCompaction()}.
+ */
+public class HnswIndex {
+
+    private final int dimension;
+    private final int m;
+    private final int maxM0;
+    private final int efConstruction;
+    private final double levelMultiplier;
+    private final Random random = new Random(42);
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final List<Node> nodes = new ArrayList<>();
+    private final Map<Long, Integer> nodeByKey = new HashMap<>();
+    private int entryPoint = -1;
+    private int maxLevel = -1;
+    private int tombstones;
+
+    public HnswIndex(int dimension, int m, int efConstruction) {
+        this.dimension = dimension;
+        this.m = m;
+        this.maxM0 = m * 2;
+        this.efConstruction = efConstruction;
+        this.levelMultiplier = 1.0 / Math.log(m);
+    }
+
+    public void add(long key, float[] vector) {
+        if (vector.length != dimension) {
+            throw new IllegalArgumentException("Expected vector of dimension " + dimension);
+        }
+        lock.writeLock().lock();
+        try {
+            Integer previous = nodeByKey.get(key);
+            if (previous != null) {
+                nodes.get(previous).deleted = true;
+                tombstones++;
+            }
+            insert(key, vector);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long key) {
+        lock.writeLock().lock();
+        try {
+            Integer node = nodeByKey.remove(key);
+            if (node != null) {
+                nodes.get(node).deleted = true;
+                tombstones++;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public float[] getVector(long key) {
+        lock.readLock().lock();
+        try {
+            Integer node = nodeByKey.get(key);
+            return node != null ? nodes.get(node).vector : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return nodeByKey.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean needsCompaction() {
+        lock.readLock().lock();
+        try {
+            return tombstones > 64 && tombstones > nodes.size() / 4;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns a new index containing only the live nodes of this one. Only copying the live
+     * entries holds the read lock; the new graph is built without it, so writers and the
+     * searches queued behind them are not held up for the rebuild.
+     */
+    public HnswIndex compact() {
+        List<Node> live;
+        lock.readLock().lock();
+        try {
+            live = new ArrayList<>(nodeByKey.size());
+            for (Node node : nodes) {
+                if (!node.deleted) {
+                    live.add(node);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        HnswIndex compacted = new HnswIndex(dimension, m, efConstruction);
+        for (Node node : live) {
+            compacted.add(node.key, node.vector);
+        }
+        return compacted;
+    }
+
+    /**
+     * Approximate k nearest neighbours of {@code query}, closest first.
+     *
+     * @param excludeKey key to leave out of the results, typically the query item itself
+     */
+    public List<Result> search(float[] query, int k, int ef, long excludeKey) {
+        lock.readLock().lock();
+        try {
+            if (entryPoint < 0) {
+                return List.of();
+            }
+            int current = entryPoint;
+            for (int level = maxLevel; level > 0; level--) {
+                current = greedyClosest(query, current, level);
+            }
+            PriorityQueue<Candidate> found = searchLayer(query, current, Math.max(ef, k + 1), 0);
+            List<Candidate> ordered = new ArrayList<>(found);
+            ordered.sort(Comparator.comparingDouble(c -> c.distance));
+
+            List<Result> results = new ArrayList<>(k);
+            for (Candidate candidate : ordered) {
+                Node node = nodes.get(candidate.node);
+                if (!node.deleted && node.key != excludeKey) {
+                    results.add(new Result(node.key, 1.0f - candidate.distance));
+                    if (results.size() == k) {
+                        break;
+                    }
+                }
+            }
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Exact k nearest neighbours by linear scan. Used as ground truth when measuring recall.
+     */
+    public List<Result> bruteForce(float[] query, int k, long excludeKey) {
+        lock.readLock().lock();
+        try {
+            PriorityQueue<Candidate> best = new PriorityQueue<>(Comparator.comparingDouble((Candidate c) -> c.distance).reversed());
+            for (int i = 0; i < nodes.size(); i++) {
+                Node node = nodes.get(i);
+                if (node.deleted || node.key == excludeKey) {
+                    continue;
+                }
+                best.add(new Candidate(i, distance(query, node.vector)));
+                if (best.size() > k) {
+                    best.poll();
+                }
+            }
+            List<Candidate> ordered = new ArrayList<>(best);
+            ordered.sort(Comparator.comparingDouble(c -> c.distance));
+            List<Result> results = new ArrayList<>(ordered.size());
+            for (Candidate candidate : ordered) {
+                results.add(new Result(nodes.get(candidate.node).key, 1.0f - candidate.distance));
+            }
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void insert(long key, float[] vector) {
+        int level = (int) (-Math.log(1.0 - random.nextDouble()) * levelMultiplier);
+        int id = nodes.size();
+        Node node = new Node(key, vector, level, m, maxM0);
+        nodes.add(node);
+        nodeByKey.put(key, id);
+
+        if (entryPoint < 0) {
+            entryPoint = id;
+            maxLevel = level;
+            return;
+        }
+
+        int current = entryPoint;
+        for (int l = maxLevel; l > level; l--) {
+            current = greedyClosest(vector, current, l);
+        }
+        for (int l = Math.min(level, maxLevel); l >= 0; l--) {
+            PriorityQueue<Candidate> candidates = searchLayer(vector, current, efConstruction, l);
+            List<Candidate> ordered = new ArrayList<>(candidates);
+            ordered.sort(Comparator.comparingDouble(c -> c.distance));
+            int maxLinks = l == 0 ? maxM0 : m;
+
+            for (int neighbour : selectNeighbours(ordered, m)) {
+                node.link(l, neighbour);
+                Node other = nodes.get(neighbour);
+                if (other.linkCount[l] < maxLinks) {
+                    other.link(l, id);
+                } else {
+                    shrink(other, l, id, maxLinks);
+                }
+            }
+            current = ordered.get(0).node;
+        }
+        if (level > maxLevel) {
+            maxLevel = level;
+            entryPoint = id;
+        }
+    }
+
+    // Re-selects a full neighbour list including the new link, keeping the most diverse set
+    private void shrink(Node node, int level, int newLink, int maxLinks) {
+        List<Candidate> candidates = new ArrayList<>(maxLinks + 1);
+        for (int i = 0; i < node.linkCount[level]; i++) {
+            int link = node.links[level][i];
+            candidates.add(new Candidate(link, distance(node.vector, nodes.get(link).vector)));
+        }
+        candidates.add(new Candidate(newLink, distance(node.vector, nodes.get(newLink).vector)));
+        candidates.sort(Comparator.comparingDouble(c -> c.distance));
+
+        List<Integer> selected = selectNeighbours(candidates, maxLinks);
+        node.linkCount[level] = 0;
+        for (int link : selected) {
+            node.link(level, link);
+        }
+    }
+
+    // Neighbour selection heuristic from the HNSW paper: skip candidates closer to an
+    // already-selected neighbour than to the base node, then backfill with the nearest rest.
+    private List<Integer> selectNeighbours(List<Candidate> ordered, int limit) {
+        List<Integer> selected = new ArrayList<>(limit);
+        List<Integer> skipped = new ArrayList<>();
+        for (Candidate candidate : ordered) {
+            if (selected.size() >= limit) {
+                break;
+            }
+            float[] vector = nodes.get(candidate.node).vector;
+            boolean diverse = true;
+            for (int chosen : selected) {
+                if (distance(vector, nodes.get(chosen).vector) < candidate.distance) {
+                    diverse = false;
+                    break;
+                }
+            }
+            if (diverse) {
+                selected.add(candidate.node);
+            } else {
+                skipped.add(candidate.node);
+            }
+        }
+        for (int i = 0; i < skipped.size() && selected.size() < limit; i++) {
+            selected.add(skipped.get(i));
+        }
+        return selected;
+    }
+
+    private int greedyClosest(float[] query, int start, int level) {
+        int current = start;
+        float currentDistance = distance(query, nodes.get(current).vector);
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            Node node = nodes.get(current);
+            for (int i = 0; i < node.linkCount[level]; i++) {
+                int link = node.links[level][i];
+                float d = distance(query, nodes.get(link).vector);
+                if (d < currentDistance) {
+                    currentDistance = d;
+                    current = link;
+                    improved = true;
+                }
+            }
+        }
+        return current;
+    }
+
+    // Returns a max-heap (furthest first) of up to ef nearest nodes found on the given layer
+    private PriorityQueue<Candidate> searchLayer(float[] query, int start, int ef, int level) {
+        BitSet visited = new BitSet(nodes.size());
+        PriorityQueue<Candidate> frontier = new PriorityQueue<>(Comparator.comparingDouble(c -> c.distance));
+        PriorityQueue<Candidate> found = new PriorityQueue<>(Comparator.comparingDouble((Candidate c) -> c.distance).reversed());
+
+        Candidate first = new Candidate(start, distance(query, nodes.get(start).vector));
+        visited.set(start);
+        frontier.add(first);
+        found.add(first);
+
+        while (!frontier.isEmpty()) {
+            Candidate closest = frontier.poll();
+            if (closest.distance > found.peek().distance && found.size() >= ef) {
+                break;
+            }
+            Node node = nodes.get(closest.node);
+            for (int i = 0; i < node.linkCount[level]; i++) {
+                int link = node.links[level][i];
+                if (visited.get(link)) {
+                    continue;
+                }
+                visited.set(link);
+                float d = distance(query, nodes.get(link).vector);
+                if (found.size() < ef || d < found.peek().distance) {
+                    Candidate candidate = new Candidate(link, d);
+                    frontier.add(candidate);
+                    found.add(candidate);
+                    if (found.size() > ef) {
+                        found.poll();
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    private static float distance(float[] a, float[] b) {
+        float dot = 0.0f;
+        for (int i = 0; i < a.length; i++) {
+            dot += a[i] * b[i];
+        }
+        return 1.0f - dot;
+    }
+
+    private static class Node {
+        private final long key;
+        private final float[] vector;
+        private final int[][] links;
+        private final int[] linkCount;
+        private volatile boolean deleted;
+
+        Node(long key, float[] vector, int level, int m, int maxM0) {
+            this.key = key;
+            this.vector = vector;
+            this.links = new int[level + 1][];
+            this.linkCount = new int[level + 1];
+            for (int l = 0; l <= level; l++) {
+                links[l] = new int[l == 0 ? maxM0 : m];
+            }
+        }
+
+        void link(int level, int target) {
+            links[level][linkCount[level]++] = target;
+        }
+    }
+
+    private static class Candidate {
+        private final int node;
+        private final float distance;
+
+        Candidate(int node, float distance) {
+            this.node = node;
+            this.distance = distance;
+        }
+    }
+
+    public static class Result {
+        private final long key;
+        private final float similarity;
+
+        public Result(long key, float similarity) {
+            this.key = key;
+            this.similarity = similarity;
+        }
+
+        public long getKey() { return key; }
+
+        public float getSimilarity() { return similarity; }
+    }
+}
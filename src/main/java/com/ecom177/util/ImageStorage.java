@@ -0,0 +1,25 @@
+package com.ecom177.util;
+
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
+
+/**
+ * Blob storage for product images, addressed by relative keys such as {@code <imageId>/original}.
+ * Writes are all-or-nothing: a failed or aborted {@link #save} leaves nothing behind, and
+ * readers never see a partially written object.
+ */
+public interface ImageStorage {
+
+    /** Copies {@code content} to {@code key} with a bounded buffer and returns the number of bytes written. */
+    long save(String key, InputStream content) throws IOException;
+
+    Optional<Resource> load(String key);
+
+    boolean exists(String key);
+
+    /** Deletes every object whose key starts with {@code prefix + "/"}. */
+    void deleteAll(String prefix) throws IOException;
+}
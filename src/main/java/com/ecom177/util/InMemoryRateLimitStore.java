@@ -0,0 +1,55 @@
+package com.ecom177.util;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Node-local {@link RateLimitStore}: one {@link AtomicLong} per key in a concurrent map, updated
+ * with a CAS loop, so admitting a request takes no locks. A key whose bucket has fully refilled
+ * carries no information, so such keys are swept out periodically by whichever caller
+ * notices the sweep is due.
+ */
+@Component
+public class InMemoryRateLimitStore implements RateLimitStore {
+
+    private static final long SWEEP_INTERVAL_NANOS = 60_000_000_000L;
+
+    private final ConcurrentMap<String, AtomicLong> arrivals = new ConcurrentHashMap<>();
+    private final AtomicLong nextSweep = new AtomicLong(System.nanoTime() + SWEEP_INTERVAL_NANOS);
+
+    @Override
+    public long tryAcquire(String key, long emissionIntervalNanos, int capacity) {
+        long now = System.nanoTime();
+        sweepIfDue(now);
+
+        long tolerance = emissionIntervalNanos * capacity;
+        AtomicLong arrival = arrivals.computeIfAbsent(key, k -> new AtomicLong(now));
+        while (true) {
+            long tat = arrival.get();
+            long next = Math.max(tat, now) + emissionIntervalNanos;
+            long overshoot = next - now - tolerance;
+            if (overshoot > 0) {
+                return overshoot;
+            }
+            if (arrival.compareAndSet(tat, next)) {
+                return 0;
+            }
+        }
+    }
+
+    public int size() {
+        return arrivals.size();
+    }
+
+    private void sweepIfDue(long now) {
+        long due = nextSweep.get();
+        if (now - due < 0 || !nextSweep.compareAndSet(due, now + SWEEP_INTERVAL_NANOS)) {
+            return;
+        }
+        // A theoretical arrival time in the past means the bucket is full again
+        arrivals.entrySet().removeIf(entry -> entry.getValue().get() - now < 0);
+    }
+}
@@ -0,0 +1,194 @@
+package com.ecom177.util;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Immutable weighted prefix index for typeahead.
+ * <p>
+ * Keys are stored in a compressed (radix) trie and every node carries the indices of its best
+ * {@code maxResults} completions, precomputed at build time. A lookup therefore only walks the
+ * query characters and copies a short list, independent of how many keys share the prefix.
+ * Each entry is indexed under its full text and under every word start, so "lap" finds
+ * "Gaming Laptop".
+ */
+public class PrefixSuggester {
+
+    private static final int[] NONE = new int[0];
+
+    private final Entry[] entries;
+    private final Node root;
+
+    private PrefixSuggester(Entry[] entries, Node root) {
+        this.entries = entries;
+        this.root = root;
+    }
+
+    public static PrefixSuggester empty() {
+        return new PrefixSuggester(new Entry[0], new Node(new char[0], new Node[0], NONE));
+    }
+
+    public static PrefixSuggester build(List<Entry> input, int maxResults) {
+        Entry[] entries = input.toArray(new Entry[0]);
+        // Lower index means better rank, so per-node lists can be merged by index alone
+        Arrays.sort(entries, Comparator.comparingDouble(Entry::getWeight).reversed()
+                .thenComparing(Entry::getText));
+
+        BuildNode buildRoot = new BuildNode();
+        for (int i = 0; i < entries.length; i++) {
+            String key = normalize(entries[i].getText());
+            if (key.isEmpty()) {
+                continue;
+            }
+            buildRoot.insert(key, 0, i);
+            for (int pos = key.indexOf(' '); pos >= 0; pos = key.indexOf(' ', pos + 1)) {
+                if (pos + 1 < key.length()) {
+                    buildRoot.insert(key, pos + 1, i);
+                }
+            }
+        }
+        return new PrefixSuggester(entries, buildRoot.compress(new StringBuilder(), maxResults));
+    }
+
+    public List<Entry> suggest(String query, int limit) {
+        String key = normalize(query);
+        if (key.isEmpty()) {
+            return List.of();
+        }
+        Node node = root;
+        int pos = 0;
+        while (pos < key.length()) {
+            Node child = node.child(key.charAt(pos));
+            if (child == null) {
+                return List.of();
+            }
+            char[] label = child.label;
+            int matched = 0;
+            while (matched < label.length && pos < key.length()) {
+                if (label[matched] != key.charAt(pos)) {
+                    return List.of();
+                }
+                matched++;
+                pos++;
+            }
+            node = child;
+        }
+        int n = Math.min(limit, node.top.length);
+        List<Entry> result = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            result.add(entries[node.top[i]]);
+        }
+        return result;
+    }
+
+    public int size() {
+        return entries.length;
+    }
+
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String stripped = Normalizer.normalize(text, Normalizer.Form.NFD).replaceAll("\\p{M}+", "");
+        return stripped.toLowerCase(Locale.ROOT).replaceAll("[^\\p{L}\\p{N}]+", " ").trim();
+    }
+
+    public static class Entry {
+        private final String text;
+        private final String type;
+        private final long id;
+        private final double weight;
+
+        public Entry(String text, String type, long id, double weight) {
+            this.text = text;
+            this.type = type;
+            this.id = id;
+            this.weight = weight;
+        }
+
+        public String getText() { return text; }
+
+        public String getType() { return type; }
+
+        public long getId() { return id; }
+
+        public double getWeight() { return weight; }
+    }
+
+    private static class Node {
+        private final char[] label;
+        private final char[] firstChars;
+        private final Node[] children;
+        private final int[] top;
+
+        Node(char[] label, Node[] children, int[] top) {
+            this.label = label;
+            this.children = children;
+            this.top = top;
+            this.firstChars = new char[children.length];
+            for (int i = 0; i < children.length; i++) {
+                firstChars[i] = children[i].label[0];
+            }
+        }
+
+        Node child(char c) {
+            int i = Arrays.binarySearch(firstChars, c);
+            return i >= 0 ? children[i] : null;
+        }
+    }
+
+    // Uncompressed, mutable trie used only while building
+    private static class BuildNode {
+        private final Map<Character, BuildNode> children = new TreeMap<>();
+        private int[] terminals = NONE;
+
+        void insert(String key, int from, int entry) {
+            BuildNode node = this;
+            for (int i = from; i < key.length(); i++) {
+                node = node.children.computeIfAbsent(key.charAt(i), c -> new BuildNode());
+            }
+            node.terminals = Arrays.copyOf(node.terminals, node.terminals.length + 1);
+            node.terminals[node.terminals.length - 1] = entry;
+        }
+
+        Node compress(StringBuilder label, int maxResults) {
+            BuildNode node = this;
+            // Fold chains of single-child, non-terminal nodes into one edge label
+            while (node.children.size() == 1 && node.terminals.length == 0 && label.length() > 0) {
+                Map.Entry<Character, BuildNode> only = node.children.entrySet().iterator().next();
+                label.append(only.getKey());
+                node = only.getValue();
+            }
+
+            Node[] compressed = new Node[node.children.size()];
+            int i = 0;
+            int candidates = node.terminals.length;
+            for (Map.Entry<Character, BuildNode> child : node.children.entrySet()) {
+                compressed[i] = child.getValue().compress(new StringBuilder().append(child.getKey()), maxResults);
+                candidates += compressed[i].top.length;
+                i++;
+            }
+
+            int[] merged = Arrays.copyOf(node.terminals, candidates);
+            int offset = node.terminals.length;
+            for (Node child : compressed) {
+                System.arraycopy(child.top, 0, merged, offset, child.top.length);
+                offset += child.top.length;
+            }
+            Arrays.sort(merged);
+            int distinct = 0;
+            for (int j = 0; j < merged.length && distinct < maxResults; j++) {
+                if (distinct == 0 || merged[distinct - 1] != merged[j]) {
+                    merged[distinct++] = merged[j];
+                }
+            }
+            return new Node(label.toString().toCharArray(), compressed, Arrays.copyOf(merged, distinct));
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.ecom177.util;
+
+/**
+ * Backing state for GCRA (generic cell rate algorithm) rate limiting. Each key is a single
+ * number, the "theoretical arrival time" of its next request. That lets a store update it
+ * atomically with one compare-and-set locally, or with a single scripted command in a store
+ * shared between nodes.
+ */
+public interface RateLimitStore {
+
+    /**
+     * Attempts to admit one request for {@code key}.
+     *
+     * @param emissionIntervalNanos time for one token to refill (1 / rate)
+     * @param capacity              burst size, in requests
+     * @return 0 if admitted, otherwise how many nanoseconds to wait before retrying
+     */
+    long tryAcquire(String key, long emissionIntervalNanos, int capacity);
+}
@@ -0,0 +1,19 @@
+package com.ecom177.util;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * When the database is unavailable, the annotated read returns the last result it produced for
+ * equal arguments instead of failing, and the response is marked with {@code X-Catalog-Stale}.
+ * Only for reads whose result does not depend on the caller, and whose arguments implement
+ * {@code equals}/{@code hashCode}.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ServeStale {
+}
@@ -0,0 +1,66 @@
+package com.ecom177.util;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Collapses concurrent calls for the same key into one execution. The first caller (the
+ * leader) runs the loader on its own thread; callers that arrive while it is running wait for
+ * its result, or its exception, instead of running the loader again. Nothing is cached: once
+ * the leader finishes, the next call for the key executes afresh.
+ */
+public class SingleFlight<K, V> {
+
+    public enum Outcome { EXECUTED, COALESCED }
+
+    public record Result<V>(V value, Outcome outcome) {
+    }
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Runs or joins the call for {@code key}. Followers wait at most {@code maxWaitMs} and then
+     * get a {@link TimeoutException}; the leader itself is never cut short.
+     */
+    public Result<V> execute(K key, Supplier<V> loader, long maxWaitMs) throws TimeoutException, InterruptedException {
+        CompletableFuture<V> own = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, own);
+        if (existing == null) {
+            try {
+                V value = loader.get();
+                own.complete(value);
+                return new Result<>(value, Outcome.EXECUTED);
+            } catch (RuntimeException | Error e) {
+                own.completeExceptionally(e);
+                throw e;
+            } finally {
+                inFlight.remove(key, own);
+            }
+        }
+
+        try {
+            return new Result<>(existing.get(maxWaitMs, TimeUnit.MILLISECONDS), Outcome.COALESCED);
+        } catch (ExecutionException e) {
+            // Followers see the leader's own exception, e.g. a ResourceNotFoundException
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (CancellationException e) {
+            throw new IllegalStateException("Coalesced call was cancelled", e);
+        }
+    }
+
+    public int inFlight() {
+        return inFlight.size();
+    }
+}
@@ -0,0 +1,71 @@
+package com.ecom177.util;
+
+import java.util.Locale;
+
+/**
+ * Turns short product text into fixed-size, L2-normalised feature vectors using the hashing
+ * trick over word unigrams and character trigrams. No vocabulary is kept, so vectors for new
+ * products can be produced without refitting anything.
+ */
+public class TextVectorizer {
+
+    private static final float WORD_WEIGHT = 1.0f;
+    private static final float TRIGRAM_WEIGHT = 0.5f;
+
+    private final int dimension;
+
+    public TextVectorizer(int dimension) {
+        this.dimension = dimension;
+    }
+
+    public int getDimension() {
+        return dimension;
+    }
+
+    public float[] vectorize(String name, float nameWeight, String description) {
+        float[] vector = new float[dimension];
+        addText(vector, name, nameWeight);
+        addText(vector, description, 1.0f);
+
+        // Sublinear term frequency keeps repeated words from dominating the vector
+        double norm = 0.0;
+        for (int i = 0; i < dimension; i++) {
+            float v = vector[i];
+            if (v != 0.0f) {
+                v = (float) Math.copySign(Math.log1p(Math.abs(v)), v);
+                vector[i] = v;
+                norm += v * v;
+            }
+        }
+        if (norm > 0.0) {
+            float scale = (float) (1.0 / Math.sqrt(norm));
+            for (int i = 0; i < dimension; i++) {
+                vector[i] *= scale;
+            }
+        }
+        return vector;
+    }
+
+    private void addText(float[] vector, String text, float weight) {
+        if (text == null || text.isBlank()) {
+            return;
+        }
+        for (String word : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            addFeature(vector, word.hashCode(), weight * WORD_WEIGHT);
+            String padded = "^" + word + "$";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                addFeature(vector, 31 * padded.substring(i, i + 3).hashCode() + 7, weight * TRIGRAM_WEIGHT);
+            }
+        }
+    }
+
+    private void addFeature(float[] vector, int hash, float weight) {
+        int h = hash * 0x9E3779B9;
+        h ^= h >>> 16;
+        int index = (h & 0x7fffffff) % dimension;
+        vector[index] += (h & 0x80000000) == 0 ? weight : -weight;
+    }
+}
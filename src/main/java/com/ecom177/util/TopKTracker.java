@@ -0,0 +1,258 @@
+package com.ecom177.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Space-Saving heavy-hitter tracker over a stream-summary, with time decay.
+ * <p>
+ * At most {@code capacity} keys are monitored at once, so memory is fixed regardless of how
+ * many distinct keys are offered. Monitored keys sit in buckets of equal count, kept in a doubly
+ * linked list in ascending order, so adding one unit to a key moves it at most one bucket along
+ * and evicting the minimum takes any key of the first bucket: both are O(1). Adding
+ * {@code amount} units walks past at most {@code amount} buckets.
+ * <p>
+ * Decay halves every count once per half-life. The halving is O(capacity) and runs on the
+ * first call after the half-life elapses, so updates stay O(1) amortised; between halvings
+ * counts are exact.
+ */
+public class TopKTracker {
+
+    private final int capacity;
+    private final long halfLifeMs;
+    private final Map<Long, Node> nodes;
+    private Bucket min;
+    private Bucket max;
+    private long nextDecayAt;
+
+    /**
+     * @param capacity     maximum number of monitored keys
+     * @param halfLifeMs   decay half-life, or {@code 0} to disable decay
+     * @param nowMs        start of the first half-life
+     */
+    public TopKTracker(int capacity, long halfLifeMs, long nowMs) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.halfLifeMs = halfLifeMs;
+        this.nodes = new HashMap<>(capacity * 2);
+        this.nextDecayAt = halfLifeMs > 0 ? nowMs + halfLifeMs : Long.MAX_VALUE;
+    }
+
+    public synchronized void add(long key, long amount, long nowMs) {
+        if (amount <= 0) {
+            return;
+        }
+        decayIfDue(nowMs);
+        Node node = nodes.get(key);
+        if (node == null) {
+            if (nodes.size() < capacity) {
+                node = new Node(key);
+                nodes.put(key, node);
+                insertFresh(node, amount);
+                return;
+            }
+            // Evict a key with the minimum count and let the newcomer inherit it as error bound
+            node = min.head;
+            nodes.remove(node.key);
+            node.key = key;
+            node.error = node.count;
+            nodes.put(key, node);
+        }
+        increment(node, amount);
+    }
+
+    /**
+     * Returns up to {@code limit} keys ordered by decayed count, highest first.
+     */
+    public synchronized List<Entry> top(int limit, long nowMs) {
+        decayIfDue(nowMs);
+        List<Entry> result = new ArrayList<>(Math.min(limit, nodes.size()));
+        for (Bucket bucket = max; bucket != null && result.size() < limit; bucket = bucket.prev) {
+            for (Node node = bucket.head; node != null && result.size() < limit; node = node.next) {
+                result.add(new Entry(node.key, node.count, node.error));
+            }
+        }
+        return result;
+    }
+
+    public synchronized void remove(long key) {
+        Node node = nodes.remove(key);
+        if (node != null) {
+            detach(node);
+        }
+    }
+
+    public synchronized int size() {
+        return nodes.size();
+    }
+
+    private void increment(Node node, long amount) {
+        Bucket from = node.bucket;
+        long target = node.count + amount;
+        // Walk from the old bucket before it may be removed, so it can serve as the anchor
+        Bucket before = from;
+        Bucket after = from.next;
+        while (after != null && after.count < target) {
+            before = after;
+            after = after.next;
+        }
+        unlink(node);
+        node.count = target;
+        place(node, before, after);
+        if (from.head == null) {
+            removeBucket(from);
+        }
+    }
+
+    // New keys start small, so the walk up from the minimum is short
+    private void insertFresh(Node node, long count) {
+        node.count = count;
+        Bucket before = null;
+        Bucket after = min;
+        while (after != null && after.count < count) {
+            before = after;
+            after = after.next;
+        }
+        place(node, before, after);
+    }
+
+    // Links the node into the bucket for its count, between "before" and "after"
+    private void place(Node node, Bucket before, Bucket after) {
+        Bucket bucket;
+        if (after != null && after.count == node.count) {
+            bucket = after;
+        } else {
+            bucket = new Bucket(node.count);
+            bucket.prev = before;
+            bucket.next = after;
+            if (before != null) {
+                before.next = bucket;
+            } else {
+                min = bucket;
+            }
+            if (after != null) {
+                after.prev = bucket;
+            } else {
+                max = bucket;
+            }
+        }
+        node.bucket = bucket;
+        node.prev = null;
+        node.next = bucket.head;
+        if (bucket.head != null) {
+            bucket.head.prev = node;
+        }
+        bucket.head = node;
+    }
+
+    private void detach(Node node) {
+        Bucket bucket = node.bucket;
+        unlink(node);
+        if (bucket.head == null) {
+            removeBucket(bucket);
+        }
+    }
+
+    private void unlink(Node node) {
+        if (node.prev != null) {
+            node.prev.next = node.next;
+        } else {
+            node.bucket.head = node.next;
+        }
+        if (node.next != null) {
+            node.next.prev = node.prev;
+        }
+        node.prev = null;
+        node.next = null;
+    }
+
+    private void removeBucket(Bucket bucket) {
+        if (bucket.prev != null) {
+            bucket.prev.next = bucket.next;
+        } else {
+            min = bucket.next;
+        }
+        if (bucket.next != null) {
+            bucket.next.prev = bucket.prev;
+        } else {
+            max = bucket.prev;
+        }
+    }
+
+    private void decayIfDue(long nowMs) {
+        if (nowMs < nextDecayAt) {
+            return;
+        }
+        long halvings = 1 + (nowMs - nextDecayAt) / halfLifeMs;
+        nextDecayAt += halvings * halfLifeMs;
+        int shift = (int) Math.min(63, halvings);
+        // Halving keeps the order, so buckets only ever merge with their lower neighbour
+        for (Bucket bucket = min; bucket != null; bucket = bucket.next) {
+            bucket.count >>= shift;
+            for (Node node = bucket.head; node != null; node = node.next) {
+                node.count = bucket.count;
+                node.error >>= shift;
+            }
+            Bucket lower = bucket.prev;
+            if (lower != null && lower.count == bucket.count) {
+                Node tail = bucket.head;
+                tail.bucket = lower;
+                while (tail.next != null) {
+                    tail = tail.next;
+                    tail.bucket = lower;
+                }
+                tail.next = lower.head;
+                lower.head.prev = tail;
+                lower.head = bucket.head;
+                bucket.head = null;
+                removeBucket(bucket);
+            }
+        }
+    }
+
+    private static final class Node {
+        private long key;
+        private long count;
+        private long error;
+        private Bucket bucket;
+        private Node prev;
+        private Node next;
+
+        Node(long key) {
+            this.key = key;
+        }
+    }
+
+    private static final class Bucket {
+        private long count;
+        private Node head;
+        private Bucket prev;
+        private Bucket next;
+
+        Bucket(long count) {
+            this.count = count;
+        }
+    }
+
+    public static class Entry {
+        private final long key;
+        private final double count;
+        private final double error;
+
+        public Entry(long key, double count, double error) {
+            this.key = key;
+            this.count = count;
+            this.error = error;
+        }
+
+        public long getKey() { return key; }
+
+        public double getCount() { return count; }
+
+        public double getError() { return error; }
+    }
+}